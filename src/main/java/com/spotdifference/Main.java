@@ -3,6 +3,7 @@ package com.spotdifference;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
+import com.spotdifference.manager.HighScoreManager;
 import com.spotdifference.ui.MainMenuFrame;
 
 /**
@@ -27,6 +28,9 @@ public class Main {
             }
         }
         
+        // Read the leaderboard while the main menu comes up
+        HighScoreManager.preloadAsync();
+        
         SwingUtilities.invokeLater(() -> {
             MainMenuFrame mainMenu = new MainMenuFrame();
             mainMenu.setVisible(true);
@@ -10,45 +10,67 @@ import java.util.Set;
  * Function 2: Real-time Difference Checking
  * Uses HashSet<Difference> for O(1) average-time click validation.
  * When a player clicks, this checks if the click matches any remaining difference.
+ * Hit-testing goes through a DifferenceIndex (a uniform grid by default), so a click
+ * only looks at the differences near it instead of walking the whole set.
  */
 public class DifferenceChecker {
     private HashSet<Difference> remainingDifferences;
+    private DifferenceIndex index;
     private int totalDifferences;
     
     public DifferenceChecker(List<Difference> differences) {
+        this(differences, GridDifferenceIndex.forDifferences(differences));
+    }
+    
+    /**
+     * Creates a checker backed by a custom spatial index.
+     * The index must already contain the given differences.
+     */
+    public DifferenceChecker(List<Difference> differences, DifferenceIndex index) {
         this.remainingDifferences = new HashSet<>(differences);
+        this.index = index;
         this.totalDifferences = differences.size();
     }
     
     /**
      * Checks if the click point matches any remaining difference.
-     * Uses O(1) average-time HashSet operations.
+     * Uses the spatial index to find the candidate, then O(1) HashSet removal.
      * 
      * @param clickPoint The point where the player clicked
      * @return The matched Difference object, or null if no match
      */
     public Difference checkClick(Point clickPoint) {
-        for (Difference diff : remainingDifferences) {
-            if (diff.contains(clickPoint)) {
-                remainingDifferences.remove(diff);
-                return diff;
-            }
+        return checkClick(clickPoint.x, clickPoint.y);
+    }
+    
+    /**
+     * Allocation-free variant of checkClick(Point)
+     */
+    public Difference checkClick(int x, int y) {
+        Difference diff = index.find(x, y);
+        if (diff != null) {
+            remainingDifferences.remove(diff);
+            index.remove(diff);
         }
-        return null;
+        return diff;
     }
     
     /**
      * Adds a difference back to the remaining set (used by Undo)
      */
     public void addDifference(Difference difference) {
-        remainingDifferences.add(difference);
+        if (remainingDifferences.add(difference)) {
+            index.add(difference);
+        }
     }
     
     /**
      * Removes a difference from the remaining set (used by Hint)
      */
     public void removeDifference(Difference difference) {
-        remainingDifferences.remove(difference);
+        if (remainingDifferences.remove(difference)) {
+            index.remove(difference);
+        }
     }
     
     public boolean isLevelComplete() {
@@ -69,6 +91,7 @@ public class DifferenceChecker {
     
     public void reset(List<Difference> differences) {
         this.remainingDifferences = new HashSet<>(differences);
+        this.index = GridDifferenceIndex.forDifferences(differences);
         this.totalDifferences = differences.size();
     }
 }
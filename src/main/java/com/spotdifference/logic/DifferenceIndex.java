@@ -0,0 +1,25 @@
+package com.spotdifference.logic;
+
+import com.spotdifference.model.Difference;
+
+/**
+ * Spatial index over the remaining differences of a level.
+ * Lets DifferenceChecker answer a click without scanning every difference.
+ * Implementations must support add/remove so Undo can put differences back.
+ */
+public interface DifferenceIndex {
+
+    /**
+     * Returns a difference whose detection area contains (x, y), or null.
+     * Must not allocate on the lookup path.
+     */
+    Difference find(int x, int y);
+
+    void add(Difference difference);
+
+    void remove(Difference difference);
+
+    int size();
+
+    void clear();
+}
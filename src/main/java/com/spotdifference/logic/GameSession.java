@@ -0,0 +1,401 @@
+package com.spotdifference.logic;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.spotdifference.model.Difference;
+import com.spotdifference.model.LevelData;
+
+/**
+ * One play-through of a level, without any UI.
+ * Owns the game state (score, clicks, play time, found differences) and the
+ * scoring (a ScoringRules), and changes it only in response to events: click, hint,
+ * undo/redo, pause/resume and tick. Every change is reported to the registered
+ * GameSessionListeners, so GameScreen is just a view on top of a session and
+ * simulations can run millions of sessions without a display.
+ *
+ * Time comes from an injectable Clock, so tests and simulations control it;
+ * paused time doesn't count towards the time bonus.
+ * A difference earns its find points only the first time it is found, so
+ * undoing a find and redoing or re-clicking it can never raise the score.
+ * startRecording() captures the input events for SessionReplayer.
+ * Not thread-safe: feed a session its events from one thread.
+ */
+public class GameSession {
+    public static final int MAX_UNDOS = 5;
+    // Undo depth for practice sessions
+    public static final int PRACTICE_UNDOS = 1000;
+    public static final int MAX_HINTS = 3;
+    
+    /**
+     * Source of time in nanoseconds (System.nanoTime in the game)
+     */
+    public interface Clock {
+        Clock SYSTEM = System::nanoTime;
+        
+        long nanoTime();
+    }
+    
+    private final LevelData levelData;
+    private final Clock clock;
+    private final ScoringRules rules;
+    private final List<GameSessionListener> listeners;
+    
+    // HashSet: remaining differences (O(1) contains/removal)
+    private final DifferenceChecker differenceChecker;
+    // Ring buffer: undo history (LIFO) and the moves that can be redone
+    private final UndoManager undoManager;
+    // Queue: hint order (FIFO)
+    private final HintManager hintManager;
+    private final List<Point> foundLocations;
+    // Differences that have earned their find points
+    private final Set<Difference> scoredDifferences;
+    // Null unless the session is being recorded
+    private SessionRecorder recorder;
+    
+    private int score;
+    private int clicks;
+    private final long startNanos;
+    private long pausedNanos;
+    private long pauseStartNanos;
+    private boolean paused;
+    private long lastReportedSecond;
+    
+    private boolean complete;
+    private long completionSeconds;
+    private int timeBonus;
+    
+    public GameSession(LevelData levelData) {
+        this(levelData, Clock.SYSTEM, ScoringRules.DEFAULT);
+    }
+    
+    public GameSession(LevelData levelData, Clock clock) {
+        this(levelData, clock, ScoringRules.DEFAULT);
+    }
+    
+    public GameSession(LevelData levelData, Clock clock, ScoringRules rules) {
+        this(levelData, clock, rules, MAX_UNDOS);
+    }
+    
+    /**
+     * @param maxUndos How many finds can be undone (MAX_UNDOS in the game, PRACTICE_UNDOS for practice)
+     */
+    public GameSession(LevelData levelData, Clock clock, ScoringRules rules, int maxUndos) {
+        this.levelData = levelData;
+        this.clock = clock;
+        this.rules = rules;
+        this.listeners = new ArrayList<>();
+        this.differenceChecker = new DifferenceChecker(levelData.getDifferences());
+        this.undoManager = new UndoManager(maxUndos);
+        this.hintManager = new HintManager(levelData.getDifferences(), MAX_HINTS);
+        this.foundLocations = new ArrayList<>();
+        this.scoredDifferences = new HashSet<>();
+        this.startNanos = clock.nanoTime();
+    }
+    
+    public void addListener(GameSessionListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(GameSessionListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Records every following event; call it before the first event so the
+     * recording replays the whole session
+     */
+    public SessionRecorder startRecording() {
+        if (recorder == null) {
+            recorder = new SessionRecorder(startNanos, undoManager.getCapacity());
+        }
+        return recorder;
+    }
+    
+    public SessionRecorder getRecorder() {
+        return recorder;
+    }
+    
+    // ---- events ----
+    
+    /**
+     * A click at image coordinates. Ignored while paused or after completion.
+     *
+     * @return The difference found, or null for a miss (or an ignored click)
+     */
+    public Difference click(int x, int y) {
+        if (recorder != null) {
+            recorder.recordClick(clock.nanoTime(), x, y);
+        }
+        if (paused || complete) {
+            return null;
+        }
+        clicks++;
+        for (GameSessionListener listener : listeners) {
+            listener.clicksChanged(clicks);
+        }
+        
+        Difference found = differenceChecker.checkClick(x, y);
+        if (found == null) {
+            for (GameSessionListener listener : listeners) {
+                listener.clickMissed(x, y);
+            }
+            changeScore(-rules.getMissPenalty());
+            return null;
+        }
+        
+        undoManager.pushMove(found);
+        hintManager.removeDifference(found);
+        foundLocations.add(found.getLocation());
+        int remaining = differenceChecker.getRemainingCount();
+        for (GameSessionListener listener : listeners) {
+            listener.differenceFound(found, remaining);
+        }
+        if (scoredDifferences.add(found)) {
+            changeScore(rules.getFindPoints());
+        }
+        
+        if (differenceChecker.isLevelComplete()) {
+            completeLevel();
+        }
+        return found;
+    }
+    
+    /**
+     * Reveals the next hint, if any are left
+     *
+     * @return The hinted difference, or null if no hint is available
+     */
+    public Difference useHint() {
+        record(SessionRecorder.EVENT_HINT);
+        if (paused || complete || !hintManager.hasHintsAvailable()) {
+            return null;
+        }
+        Difference hint = hintManager.getNextHint();
+        if (hint != null) {
+            int hintsRemaining = hintManager.getHintsRemaining();
+            for (GameSessionListener listener : listeners) {
+                listener.hintShown(hint, hintsRemaining);
+            }
+            changeScore(-rules.getHintPenalty());
+        }
+        return hint;
+    }
+    
+    /**
+     * Takes back the most recent find
+     *
+     * @return The difference that is unfound again, or null if there was nothing to undo
+     */
+    public Difference undo() {
+        record(SessionRecorder.EVENT_UNDO);
+        if (paused || complete) {
+            return null;
+        }
+        Difference last = undoManager.popMove();
+        if (last != null) {
+            differenceChecker.addDifference(last);
+            // Finds and undos are LIFO, so the undone find is the last one added
+            foundLocations.remove(foundLocations.size() - 1);
+            int remaining = differenceChecker.getRemainingCount();
+            for (GameSessionListener listener : listeners) {
+                listener.moveUndone(last, remaining);
+            }
+            changeScore(-rules.getUndoPenalty());
+        }
+        return last;
+    }
+    
+    /**
+     * Finds the most recently undone difference again. Like clicking it again,
+     * this earns nothing: its find points were awarded the first time.
+     *
+     * @return The difference that is found again, or null if there was nothing to redo
+     */
+    public Difference redo() {
+        record(SessionRecorder.EVENT_REDO);
+        if (paused || complete) {
+            return null;
+        }
+        Difference move = undoManager.redoMove();
+        if (move != null) {
+            differenceChecker.removeDifference(move);
+            foundLocations.add(move.getLocation());
+            int remaining = differenceChecker.getRemainingCount();
+            for (GameSessionListener listener : listeners) {
+                listener.moveRedone(move, remaining);
+            }
+            if (differenceChecker.isLevelComplete()) {
+                completeLevel();
+            }
+        }
+        return move;
+    }
+    
+    public void pause() {
+        if (!paused && !complete) {
+            paused = true;
+            pauseStartNanos = clock.nanoTime();
+            if (recorder != null) {
+                recorder.recordEvent(SessionRecorder.EVENT_PAUSE, pauseStartNanos);
+            }
+            for (GameSessionListener listener : listeners) {
+                listener.pausedChanged(true);
+            }
+        }
+    }
+    
+    public void resume() {
+        if (paused) {
+            paused = false;
+            long now = clock.nanoTime();
+            pausedNanos += now - pauseStartNanos;
+            if (recorder != null) {
+                recorder.recordEvent(SessionRecorder.EVENT_RESUME, now);
+            }
+            for (GameSessionListener listener : listeners) {
+                listener.pausedChanged(false);
+            }
+        }
+    }
+    
+    /**
+     * Advances the play time; reports timeChanged when a new second started.
+     * Call it periodically (GameScreen does once per second).
+     */
+    public void tick() {
+        if (paused || complete) {
+            return;
+        }
+        long seconds = getElapsedSeconds();
+        if (seconds != lastReportedSecond) {
+            lastReportedSecond = seconds;
+            for (GameSessionListener listener : listeners) {
+                listener.timeChanged(seconds);
+            }
+        }
+    }
+    
+    private void completeLevel() {
+        completionSeconds = getElapsedSeconds();
+        timeBonus = rules.timeBonus(completionSeconds);
+        complete = true;
+        changeScore(timeBonus);
+        if (recorder != null) {
+            recorder.recordEnd(clock.nanoTime(), score);
+        }
+        for (GameSessionListener listener : listeners) {
+            listener.levelCompleted(score, completionSeconds, timeBonus);
+        }
+    }
+    
+    private void record(byte event) {
+        if (recorder != null) {
+            recorder.recordEvent(event, clock.nanoTime());
+        }
+    }
+    
+    /**
+     * Applies points or a penalty; the score never goes below 0
+     */
+    private void changeScore(int delta) {
+        int newScore = Math.max(0, score + delta);
+        if (newScore != score) {
+            score = newScore;
+            for (GameSessionListener listener : listeners) {
+                listener.scoreChanged(score);
+            }
+        }
+    }
+    
+    // ---- state ----
+    
+    public LevelData getLevelData() {
+        return levelData;
+    }
+    
+    public ScoringRules getRules() {
+        return rules;
+    }
+    
+    public int getMaxUndos() {
+        return undoManager.getCapacity();
+    }
+    
+    public String getLevelName() {
+        return levelData.getLevelName();
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public int getClicks() {
+        return clicks;
+    }
+    
+    /**
+     * Play time so far (frozen while paused and once the level is complete)
+     */
+    public long getElapsedSeconds() {
+        if (complete) {
+            return completionSeconds;
+        }
+        long now = paused ? pauseStartNanos : clock.nanoTime();
+        return Math.max(0, now - startNanos - pausedNanos) / 1_000_000_000L;
+    }
+    
+    public int getRemainingCount() {
+        return differenceChecker.getRemainingCount();
+    }
+    
+    public int getTotalDifferences() {
+        return differenceChecker.getTotalDifferences();
+    }
+    
+    public int getFoundCount() {
+        return foundLocations.size();
+    }
+    
+    /**
+     * Locations of the differences found so far, in the order they were found
+     */
+    public List<Point> getFoundLocations() {
+        return Collections.unmodifiableList(foundLocations);
+    }
+    
+    public int getHintsRemaining() {
+        return hintManager.getHintsRemaining();
+    }
+    
+    public boolean hasHintsAvailable() {
+        return hintManager.hasHintsAvailable();
+    }
+    
+    public boolean canUndo() {
+        return undoManager.canUndo();
+    }
+    
+    public boolean canRedo() {
+        return undoManager.canRedo();
+    }
+    
+    public boolean isPaused() {
+        return paused;
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    /**
+     * Time bonus awarded on completion (0 until then)
+     */
+    public int getTimeBonus() {
+        return timeBonus;
+    }
+}
@@ -0,0 +1,46 @@
+package com.spotdifference.logic;
+
+import com.spotdifference.model.Difference;
+
+/**
+ * Receives the state changes of a GameSession.
+ * Called synchronously on the thread that fed the session its event; every
+ * method has an empty default, so listeners only override what they show.
+ */
+public interface GameSessionListener {
+    default void differenceFound(Difference difference, int remaining) {
+    }
+    
+    default void clickMissed(int x, int y) {
+    }
+    
+    default void hintShown(Difference hint, int hintsRemaining) {
+    }
+    
+    default void moveUndone(Difference difference, int remaining) {
+    }
+    
+    default void moveRedone(Difference difference, int remaining) {
+    }
+    
+    default void scoreChanged(int score) {
+    }
+    
+    default void clicksChanged(int clicks) {
+    }
+    
+    /**
+     * The play time passed a whole second (reported by tick())
+     */
+    default void timeChanged(long elapsedSeconds) {
+    }
+    
+    default void pausedChanged(boolean paused) {
+    }
+    
+    /**
+     * The last difference was found; finalScore already includes the time bonus
+     */
+    default void levelCompleted(int finalScore, long timeSeconds, int timeBonus) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.spotdifference.logic;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.spotdifference.model.Difference;
+
+/**
+ * Uniform grid implementation of DifferenceIndex.
+ * The image is split into square cells; each difference is registered in every
+ * cell its bounding box (circle or hit mask) overlaps. A click only tests the
+ * differences in its own cell, so lookups stay O(1) on average no matter how
+ * many differences a level has.
+ * Coordinates outside the grid are clamped to the border cells, so differences
+ * added later outside the original area are still found.
+ */
+public class GridDifferenceIndex implements DifferenceIndex {
+    private static final int MIN_CELL_SIZE = 8;
+    private static final int INITIAL_CELL_CAPACITY = 4;
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final Difference[][] cells;
+    private final int[] cellCounts;
+    private int size;
+
+    public GridDifferenceIndex(int width, int height, int cellSize) {
+        this.cellSize = Math.max(MIN_CELL_SIZE, cellSize);
+        this.columns = Math.max(1, (width + this.cellSize - 1) / this.cellSize);
+        this.rows = Math.max(1, (height + this.cellSize - 1) / this.cellSize);
+        this.cells = new Difference[columns * rows][];
+        this.cellCounts = new int[columns * rows];
+    }
+
+    /**
+     * Builds a grid sized to cover the given differences.
+     * The cell size is twice the average radius, so most differences span at most four cells.
+     */
+    public static GridDifferenceIndex forDifferences(Collection<Difference> differences) {
+        int width = 1;
+        int height = 1;
+        long radiusSum = 0;
+        for (Difference diff : differences) {
+            width = Math.max(width, diff.getMaxX() + 1);
+            height = Math.max(height, diff.getMaxY() + 1);
+            radiusSum += diff.getRadius();
+        }
+        int cellSize = differences.isEmpty() ? MIN_CELL_SIZE
+                : (int) (2 * radiusSum / differences.size());
+
+        GridDifferenceIndex index = new GridDifferenceIndex(width, height, cellSize);
+        for (Difference diff : differences) {
+            index.add(diff);
+        }
+        return index;
+    }
+
+    @Override
+    public Difference find(int x, int y) {
+        int cell = rowOf(y) * columns + columnOf(x);
+        Difference[] bucket = cells[cell];
+        int count = cellCounts[cell];
+        for (int i = 0; i < count; i++) {
+            if (bucket[i].contains(x, y)) {
+                return bucket[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void add(Difference difference) {
+        int minCol = columnOf(difference.getMinX());
+        int maxCol = columnOf(difference.getMaxX());
+        int minRow = rowOf(difference.getMinY());
+        int maxRow = rowOf(difference.getMaxY());
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                addToCell(row * columns + col, difference);
+            }
+        }
+        size++;
+    }
+
+    @Override
+    public void remove(Difference difference) {
+        int minCol = columnOf(difference.getMinX());
+        int maxCol = columnOf(difference.getMaxX());
+        int minRow = rowOf(difference.getMinY());
+        int maxRow = rowOf(difference.getMaxY());
+
+        boolean removed = false;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                removed |= removeFromCell(row * columns + col, difference);
+            }
+        }
+        if (removed) {
+            size--;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null) {
+                Arrays.fill(cells[i], 0, cellCounts[i], null);
+            }
+            cellCounts[i] = 0;
+        }
+        size = 0;
+    }
+
+    private void addToCell(int cell, Difference difference) {
+        Difference[] bucket = cells[cell];
+        int count = cellCounts[cell];
+        if (bucket == null) {
+            bucket = new Difference[INITIAL_CELL_CAPACITY];
+            cells[cell] = bucket;
+        } else if (count == bucket.length) {
+            bucket = Arrays.copyOf(bucket, count * 2);
+            cells[cell] = bucket;
+        }
+        bucket[count] = difference;
+        cellCounts[cell] = count + 1;
+    }
+
+    private boolean removeFromCell(int cell, Difference difference) {
+        Difference[] bucket = cells[cell];
+        int count = cellCounts[cell];
+        for (int i = 0; i < count; i++) {
+            if (bucket[i].equals(difference)) {
+                // Swap with the last entry - order inside a cell does not matter
+                bucket[i] = bucket[count - 1];
+                bucket[count - 1] = null;
+                cellCounts[cell] = count - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int columnOf(int x) {
+        return Math.min(columns - 1, Math.max(0, x / cellSize));
+    }
+
+    private int rowOf(int y) {
+        return Math.min(rows - 1, Math.max(0, y / cellSize));
+    }
+}
@@ -0,0 +1,91 @@
+package com.spotdifference.logic;
+
+/**
+ * Point values used by GameSession.
+ * Immutable; the with... methods return a copy with one value changed, which
+ * is how the score simulator tries out alternative balances.
+ */
+public final class ScoringRules {
+    /**
+     * The rules the game ships with
+     */
+    public static final ScoringRules DEFAULT = new ScoringRules(100, 5, 20, 50, 500, 2);
+    
+    private final int findPoints;
+    private final int missPenalty;
+    private final int hintPenalty;
+    private final int undoPenalty;
+    private final int maxTimeBonus;
+    private final int timeBonusPerSecond;
+    
+    /**
+     * @param maxTimeBonus Bonus for finishing in 0 seconds
+     * @param timeBonusPerSecond Bonus lost per second of play time
+     */
+    public ScoringRules(int findPoints, int missPenalty, int hintPenalty, int undoPenalty,
+                        int maxTimeBonus, int timeBonusPerSecond) {
+        this.findPoints = findPoints;
+        this.missPenalty = missPenalty;
+        this.hintPenalty = hintPenalty;
+        this.undoPenalty = undoPenalty;
+        this.maxTimeBonus = maxTimeBonus;
+        this.timeBonusPerSecond = timeBonusPerSecond;
+    }
+    
+    /**
+     * Bonus for completing a level in this many seconds: max(0, maxTimeBonus - timeBonusPerSecond * seconds)
+     */
+    public int timeBonus(long seconds) {
+        return (int) Math.max(0, maxTimeBonus - seconds * timeBonusPerSecond);
+    }
+    
+    public int getFindPoints() {
+        return findPoints;
+    }
+    
+    public int getMissPenalty() {
+        return missPenalty;
+    }
+    
+    public int getHintPenalty() {
+        return hintPenalty;
+    }
+    
+    public int getUndoPenalty() {
+        return undoPenalty;
+    }
+    
+    public int getMaxTimeBonus() {
+        return maxTimeBonus;
+    }
+    
+    public int getTimeBonusPerSecond() {
+        return timeBonusPerSecond;
+    }
+    
+    public ScoringRules withFindPoints(int value) {
+        return new ScoringRules(value, missPenalty, hintPenalty, undoPenalty, maxTimeBonus, timeBonusPerSecond);
+    }
+    
+    public ScoringRules withMissPenalty(int value) {
+        return new ScoringRules(findPoints, value, hintPenalty, undoPenalty, maxTimeBonus, timeBonusPerSecond);
+    }
+    
+    public ScoringRules withHintPenalty(int value) {
+        return new ScoringRules(findPoints, missPenalty, value, undoPenalty, maxTimeBonus, timeBonusPerSecond);
+    }
+    
+    public ScoringRules withUndoPenalty(int value) {
+        return new ScoringRules(findPoints, missPenalty, hintPenalty, value, maxTimeBonus, timeBonusPerSecond);
+    }
+    
+    public ScoringRules withTimeBonus(int maxBonus, int perSecond) {
+        return new ScoringRules(findPoints, missPenalty, hintPenalty, undoPenalty, maxBonus, perSecond);
+    }
+    
+    @Override
+    public String toString() {
+        return "find +" + findPoints + ", miss -" + missPenalty + ", hint -" + hintPenalty
+            + ", undo -" + undoPenalty + ", time bonus max(0, " + maxTimeBonus + " - " + timeBonusPerSecond + "*s)";
+    }
+}
@@ -0,0 +1,112 @@
+package com.spotdifference.logic;
+
+import java.util.Arrays;
+
+/**
+ * Records the input events of a GameSession (clicks, hints, undos, redos,
+ * pause and resume) into a compact binary stream, so a session can be replayed later with
+ * SessionReplayer and checked against its final score.
+ *
+ * Events are appended to a preallocated byte array: no objects, no locking and
+ * no I/O per event, so recording costs a few nanoseconds per click. The array
+ * only grows (doubling) if a session outlasts the initial capacity.
+ *
+ * STREAM LAYOUT:
+ *   version (byte), undo depth of the session (unsigned varint), then per event:
+ *     type (byte), nanoseconds since the previous event (unsigned varint,
+ *     the first one relative to the session start),
+ *     click: x, y (big-endian shorts)
+ *     end:   final score (unsigned varint)
+ * A varint stores 7 bits per byte, low bits first, with the high bit set on
+ * every byte but the last; a typical event takes 5-9 bytes.
+ */
+public class SessionRecorder {
+    public static final byte VERSION = 2;
+    
+    static final byte EVENT_CLICK = 1;
+    static final byte EVENT_HINT = 2;
+    static final byte EVENT_UNDO = 3;
+    static final byte EVENT_PAUSE = 4;
+    static final byte EVENT_RESUME = 5;
+    static final byte EVENT_END = 6;
+    static final byte EVENT_REDO = 7;
+    
+    // Room for a few hundred clicks before the buffer has to grow
+    private static final int DEFAULT_CAPACITY = 4096;
+    // Largest event: type, 10-byte varint, two shorts
+    private static final int MAX_EVENT_SIZE = 1 + 10 + 4;
+    
+    private byte[] buffer;
+    private int length;
+    private long lastNanos;
+    private int eventCount;
+    
+    SessionRecorder(long startNanos, int maxUndos) {
+        this(startNanos, maxUndos, DEFAULT_CAPACITY);
+    }
+    
+    SessionRecorder(long startNanos, int maxUndos, int initialCapacity) {
+        this.buffer = new byte[Math.max(1 + 10 + MAX_EVENT_SIZE, initialCapacity)];
+        this.buffer[length++] = VERSION;
+        writeVarint(maxUndos);
+        this.lastNanos = startNanos;
+    }
+    
+    void recordClick(long nanos, int x, int y) {
+        startEvent(EVENT_CLICK, nanos);
+        writeShort(x);
+        writeShort(y);
+    }
+    
+    void recordEvent(byte type, long nanos) {
+        startEvent(type, nanos);
+    }
+    
+    void recordEnd(long nanos, int finalScore) {
+        startEvent(EVENT_END, nanos);
+        writeVarint(finalScore);
+    }
+    
+    private void startEvent(byte type, long nanos) {
+        if (length + MAX_EVENT_SIZE > buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[length++] = type;
+        // The clock is monotonic, but a negative delta must not corrupt the stream
+        writeVarint(Math.max(0, nanos - lastNanos));
+        lastNanos = nanos;
+        eventCount++;
+    }
+    
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+    
+    private void writeShort(int value) {
+        int clamped = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+        buffer[length++] = (byte) (clamped >> 8);
+        buffer[length++] = (byte) clamped;
+    }
+    
+    /**
+     * Copy of the stream recorded so far
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+    
+    public int getEventCount() {
+        return eventCount;
+    }
+    
+    /**
+     * Size of the stream in bytes
+     */
+    public int size() {
+        return length;
+    }
+}
@@ -0,0 +1,120 @@
+package com.spotdifference.logic;
+
+import com.spotdifference.model.LevelData;
+
+/**
+ * Plays a stream written by SessionRecorder back through a fresh GameSession.
+ * The session runs on a clock that jumps to each recorded timestamp, so the
+ * replay sees exactly the times the player saw, including paused time.
+ *
+ * A session that was recorded until the level was complete ends with its final
+ * score; verify() checks that replaying the inputs reproduces it, which catches
+ * changes to the scoring or hit testing that alter the outcome of old games.
+ */
+public class SessionReplayer {
+    // Sanity limit for the undo depth read from a recording (it sizes an array)
+    private static final int MAX_UNDO_DEPTH = 1 << 16;
+    
+    private final byte[] recording;
+    private int position;
+    private long nanos;
+    private int recordedScore;
+    
+    public SessionReplayer(byte[] recording) {
+        if (recording.length == 0 || recording[0] != SessionRecorder.VERSION) {
+            throw new IllegalArgumentException("Not a session recording (or unsupported version)");
+        }
+        this.recording = recording;
+    }
+    
+    /**
+     * Replays every recorded event
+     *
+     * @return The replayed session
+     * @throws IllegalArgumentException If the recording is damaged
+     */
+    public GameSession replay(LevelData levelData, ScoringRules rules) {
+        position = 1;
+        nanos = 0;
+        recordedScore = -1;
+        GameSession session;
+        
+        try {
+            long maxUndos = readVarint();
+            if (maxUndos <= 0 || maxUndos > MAX_UNDO_DEPTH) {
+                throw new IllegalArgumentException("Session recording has a bad undo depth " + maxUndos);
+            }
+            session = new GameSession(levelData, () -> nanos, rules, (int) maxUndos);
+            while (position < recording.length) {
+                byte type = recording[position++];
+                nanos += readVarint();
+                switch (type) {
+                    case SessionRecorder.EVENT_CLICK:
+                        int x = readShort();
+                        int y = readShort();
+                        session.click(x, y);
+                        break;
+                    case SessionRecorder.EVENT_HINT:
+                        session.useHint();
+                        break;
+                    case SessionRecorder.EVENT_UNDO:
+                        session.undo();
+                        break;
+                    case SessionRecorder.EVENT_REDO:
+                        session.redo();
+                        break;
+                    case SessionRecorder.EVENT_PAUSE:
+                        session.pause();
+                        break;
+                    case SessionRecorder.EVENT_RESUME:
+                        session.resume();
+                        break;
+                    case SessionRecorder.EVENT_END:
+                        recordedScore = (int) readVarint();
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown event type " + type + " at byte " + (position - 1));
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Session recording is truncated", e);
+        }
+        return session;
+    }
+    
+    /**
+     * Replays the recording and compares the result with the recorded final score
+     *
+     * @return true if the recording is complete and the replay ends with the same score
+     */
+    public boolean verify(LevelData levelData, ScoringRules rules) {
+        GameSession session = replay(levelData, rules);
+        return recordedScore >= 0 && session.isComplete() && session.getScore() == recordedScore;
+    }
+    
+    /**
+     * Final score stored in the recording by the last replay, or -1 if the
+     * session was not recorded until completion
+     */
+    public int getRecordedScore() {
+        return recordedScore;
+    }
+    
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = recording[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at byte " + position);
+    }
+    
+    private int readShort() {
+        int high = recording[position++];
+        int low = recording[position++] & 0xFF;
+        return (short) ((high << 8) | low);
+    }
+}
@@ -1,69 +1,121 @@
 package com.spotdifference.logic;
 
 import com.spotdifference.model.Difference;
-import java.util.Stack;
+import java.util.Arrays;
 
 /**
  * Function 3: Undo Move System
- * Uses Stack<Difference> following LIFO (Last-In, First-Out) principle.
- * Allows players to reverse their most recent successful find.
+ * Keeps found differences in LIFO (Last-In, First-Out) order so players can
+ * reverse their most recent successful find, and redo a move they undid.
+ *
+ * The history is a circular buffer: head is the oldest move, the undo stack
+ * runs from there for undoCount slots, and the undone moves that can be redone
+ * follow it. The capacity is fixed at construction (a practice mode simply
+ * asks for a deep one); push, pop, redo and evicting the oldest move when the
+ * buffer is full are all O(1) and never allocate.
+ * Not thread-safe; GameSession uses it from one thread.
  */
 public class UndoManager {
-    private Stack<Difference> undoStack;
-    private int maxUndos;
+    private final Difference[] moves;
+    private int head;
+    private int undoCount;
+    private int redoCount;
     
+    /**
+     * @param maxUndos Number of moves that can be undone (at least 1)
+     */
     public UndoManager(int maxUndos) {
-        this.undoStack = new Stack<>();
-        this.maxUndos = maxUndos;
+        if (maxUndos <= 0) {
+            throw new IllegalArgumentException("maxUndos must be positive: " + maxUndos);
+        }
+        this.moves = new Difference[maxUndos];
     }
     
     /**
-     * Pushes a found difference onto the stack.
-     * Demonstrates Stack's push() operation.
+     * Records a found difference as the most recent move.
+     * Drops the oldest move if the limit is reached, and the redo history.
      * 
      * @param difference The difference that was just found
      */
     public void pushMove(Difference difference) {
-        if (undoStack.size() >= maxUndos && maxUndos > 0) {
-            // Remove oldest element if limit reached
-            undoStack.remove(0);
+        if (undoCount == moves.length) {
+            // Evict the oldest move; its slot becomes the new top
+            moves[head] = null;
+            head = slot(1);
+            undoCount--;
         }
-        undoStack.push(difference);
+        // A new move makes the undone ones unreachable; their slots get overwritten later
+        redoCount = 0;
+        moves[slot(undoCount)] = difference;
+        undoCount++;
     }
     
     /**
-     * Pops and returns the most recent move.
-     * Demonstrates Stack's pop() operation (LIFO).
+     * Pops and returns the most recent move (LIFO); it can be brought back with redoMove()
      * 
-     * @return The most recent difference, or null if stack is empty
+     * @return The most recent difference, or null if there is nothing to undo
      */
     public Difference popMove() {
-        if (!undoStack.isEmpty()) {
-            return undoStack.pop();
+        if (undoCount == 0) {
+            return null;
         }
-        return null;
+        undoCount--;
+        redoCount++;
+        return moves[slot(undoCount)];
     }
     
     /**
      * Peeks at the most recent move without removing it
      */
     public Difference peekMove() {
-        if (!undoStack.isEmpty()) {
-            return undoStack.peek();
+        return (undoCount > 0) ? moves[slot(undoCount - 1)] : null;
+    }
+    
+    /**
+     * Re-applies the most recently undone move
+     * 
+     * @return The difference that is found again, or null if there is nothing to redo
+     */
+    public Difference redoMove() {
+        if (redoCount == 0) {
+            return null;
         }
-        return null;
+        redoCount--;
+        return moves[slot(undoCount++)];
     }
     
     public boolean canUndo() {
-        return !undoStack.isEmpty();
+        return undoCount > 0;
+    }
+    
+    public boolean canRedo() {
+        return redoCount > 0;
     }
     
     public int getUndoCount() {
-        return undoStack.size();
+        return undoCount;
+    }
+    
+    public int getRedoCount() {
+        return redoCount;
+    }
+    
+    public int getCapacity() {
+        return moves.length;
     }
     
     public void clear() {
-        undoStack.clear();
+        Arrays.fill(moves, null);
+        head = 0;
+        undoCount = 0;
+        redoCount = 0;
+    }
+    
+    /**
+     * Array index of the move at the given distance from the oldest one
+     */
+    private int slot(int offset) {
+        int index = head + offset;
+        return (index >= moves.length) ? index - moves.length : index;
     }
 }
-
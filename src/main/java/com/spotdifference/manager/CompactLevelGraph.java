@@ -0,0 +1,359 @@
+package com.spotdifference.manager;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Level progression graph for large generated campaigns (100k+ levels).
+ * Same queries as LevelProgressionGraph, but stored compactly: levels are int
+ * ids, and edges are in compressed sparse row (CSR) form. The targets of level
+ * i are targets[offsets[i]] .. targets[offsets[i + 1] - 1], so a graph costs
+ * about 4 bytes per edge plus 4 per level, with no per-node objects.
+ *
+ * Built once with a Builder, which drops duplicate edges. Traversals reuse a
+ * preallocated queue and an epoch-stamped visited array, so the id-based
+ * methods never allocate. Not thread-safe; use it from one thread.
+ */
+public class CompactLevelGraph {
+    private final String[] levelNames;
+    private final HashMap<String, Integer> levelIds;
+    private final int[] offsets;
+    private final int[] targets;
+    private final BitSet initiallyUnlocked;
+    
+    private final BitSet unlocked;
+    private final BitSet completed;
+    private int unlockedCount;
+    private int completedCount;
+    
+    // visitStamp[i] == epoch means level i was visited in the current traversal
+    private final int[] visitStamp;
+    private int epoch;
+    private final int[] queue;
+    
+    private CompactLevelGraph(String[] levelNames, HashMap<String, Integer> levelIds,
+                              int[] offsets, int[] targets, BitSet initiallyUnlocked) {
+        this.levelNames = levelNames;
+        this.levelIds = levelIds;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.initiallyUnlocked = initiallyUnlocked;
+        this.unlocked = (BitSet) initiallyUnlocked.clone();
+        this.completed = new BitSet(levelNames.length);
+        this.unlockedCount = initiallyUnlocked.cardinality();
+        this.visitStamp = new int[levelNames.length];
+        this.queue = new int[levelNames.length];
+    }
+    
+    /**
+     * Collects levels and edges, then freezes them into a CompactLevelGraph
+     */
+    public static class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final HashMap<String, Integer> ids = new HashMap<>();
+        private final BitSet startUnlocked = new BitSet();
+        // Edge list; edge k goes from edgeFrom[k] to edgeTo[k]
+        private int[] edgeFrom = new int[16];
+        private int[] edgeTo = new int[16];
+        private int edgeCount;
+        
+        /**
+         * Adds a level (or returns the id of an existing one)
+         */
+        public int addLevel(String levelName, boolean unlockedAtStart) {
+            Integer id = ids.get(levelName);
+            if (id == null) {
+                id = names.size();
+                names.add(levelName);
+                ids.put(levelName, id);
+            }
+            if (unlockedAtStart) {
+                startUnlocked.set(id);
+            }
+            return id;
+        }
+        
+        /**
+         * Adds an edge: completing "from" unlocks "to". Both levels must exist.
+         */
+        public Builder addConnection(String from, String to) {
+            Integer fromId = ids.get(from);
+            Integer toId = ids.get(to);
+            if (fromId == null || toId == null) {
+                throw new IllegalArgumentException("Unknown level in connection " + from + " -> " + to);
+            }
+            return addConnection(fromId, toId);
+        }
+        
+        public Builder addConnection(int fromId, int toId) {
+            if (edgeCount == edgeFrom.length) {
+                edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+                edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+            }
+            edgeFrom[edgeCount] = fromId;
+            edgeTo[edgeCount] = toId;
+            edgeCount++;
+            return this;
+        }
+        
+        /**
+         * Counting sort of the edges by source into CSR arrays, then sorts and
+         * de-duplicates each row. O(V + E log(max degree)).
+         */
+        public CompactLevelGraph build() {
+            int levelCount = names.size();
+            int[] offsets = new int[levelCount + 1];
+            for (int k = 0; k < edgeCount; k++) {
+                offsets[edgeFrom[k] + 1]++;
+            }
+            for (int i = 0; i < levelCount; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            
+            int[] targets = new int[edgeCount];
+            int[] fill = Arrays.copyOf(offsets, levelCount);
+            for (int k = 0; k < edgeCount; k++) {
+                targets[fill[edgeFrom[k]]++] = edgeTo[k];
+            }
+            
+            // Sort each row and squeeze out duplicates, compacting in place
+            int write = 0;
+            int rowStart = 0;
+            for (int i = 0; i < levelCount; i++) {
+                int rowEnd = offsets[i + 1];
+                Arrays.sort(targets, rowStart, rowEnd);
+                offsets[i] = write;
+                for (int k = rowStart; k < rowEnd; k++) {
+                    if (k == rowStart || targets[k] != targets[k - 1]) {
+                        targets[write++] = targets[k];
+                    }
+                }
+                rowStart = rowEnd;
+            }
+            offsets[levelCount] = write;
+            
+            return new CompactLevelGraph(names.toArray(new String[0]), new HashMap<>(ids),
+                offsets, Arrays.copyOf(targets, write), (BitSet) startUnlocked.clone());
+        }
+    }
+    
+    // ---- id-based queries (no allocation) ----
+    
+    public int getLevelCount() {
+        return levelNames.length;
+    }
+    
+    public int getEdgeCount() {
+        return targets.length;
+    }
+    
+    /**
+     * Id of a level, or -1 if unknown
+     */
+    public int getLevelId(String levelName) {
+        Integer id = levelIds.get(levelName);
+        return (id != null) ? id : -1;
+    }
+    
+    public String getLevelName(int id) {
+        return levelNames[id];
+    }
+    
+    public int getOutDegree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+    
+    /**
+     * The i-th level unlocked by completing level id (0 &lt;= i &lt; getOutDegree(id))
+     */
+    public int getAdjacent(int id, int i) {
+        return targets[offsets[id] + i];
+    }
+    
+    public boolean isUnlocked(int id) {
+        return unlocked.get(id);
+    }
+    
+    public boolean isCompleted(int id) {
+        return completed.get(id);
+    }
+    
+    /**
+     * Marks a level completed and unlocks its adjacent levels
+     */
+    public void complete(int id) {
+        if (!completed.get(id)) {
+            completed.set(id);
+            completedCount++;
+        }
+        for (int k = offsets[id]; k < offsets[id + 1]; k++) {
+            int target = targets[k];
+            if (!unlocked.get(target)) {
+                unlocked.set(target);
+                unlockedCount++;
+            }
+        }
+    }
+    
+    /**
+     * Breadth-first traversal from a level, writing ids in visiting order.
+     *
+     * @param out Receives the visited ids; must hold getLevelCount() entries
+     * @return Number of ids written
+     */
+    public int breadthFirstTraversal(int startId, int[] out) {
+        int stamp = nextEpoch();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startId;
+        visitStamp[startId] = stamp;
+        
+        int count = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            out[count++] = current;
+            for (int k = offsets[current]; k < offsets[current + 1]; k++) {
+                int target = targets[k];
+                if (visitStamp[target] != stamp) {
+                    visitStamp[target] = stamp;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Number of levels reachable from a level (including itself)
+     */
+    public int countReachable(int startId) {
+        int stamp = nextEpoch();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startId;
+        visitStamp[startId] = stamp;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int k = offsets[current]; k < offsets[current + 1]; k++) {
+                int target = targets[k];
+                if (visitStamp[target] != stamp) {
+                    visitStamp[target] = stamp;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return tail;
+    }
+    
+    /**
+     * A fresh stamp value, so the visited array never needs clearing
+     */
+    private int nextEpoch() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamp, 0);
+            epoch = 0;
+        }
+        return ++epoch;
+    }
+    
+    // ---- name-based API, mirroring LevelProgressionGraph ----
+    
+    public void completeLevel(String levelName) {
+        int id = getLevelId(levelName);
+        if (id >= 0) {
+            complete(id);
+        }
+    }
+    
+    public boolean isLevelUnlocked(String levelName) {
+        int id = getLevelId(levelName);
+        return id >= 0 && unlocked.get(id);
+    }
+    
+    public boolean isLevelCompleted(String levelName) {
+        int id = getLevelId(levelName);
+        return id >= 0 && completed.get(id);
+    }
+    
+    public List<String> getUnlockedLevels() {
+        List<String> unlockedLevels = new ArrayList<>(unlockedCount);
+        for (int id = unlocked.nextSetBit(0); id >= 0; id = unlocked.nextSetBit(id + 1)) {
+            unlockedLevels.add(levelNames[id]);
+        }
+        return unlockedLevels;
+    }
+    
+    public int getUnlockedCount() {
+        return unlockedCount;
+    }
+    
+    public int getCompletedCount() {
+        return completedCount;
+    }
+    
+    public List<String> getAdjacentLevels(String levelName) {
+        int id = getLevelId(levelName);
+        if (id < 0) return new ArrayList<>();
+        
+        List<String> adjacentNames = new ArrayList<>(getOutDegree(id));
+        for (int k = offsets[id]; k < offsets[id + 1]; k++) {
+            adjacentNames.add(levelNames[targets[k]]);
+        }
+        return adjacentNames;
+    }
+    
+    public Set<String> getAllLevels() {
+        return Collections.unmodifiableSet(levelIds.keySet());
+    }
+    
+    /**
+     * Levels reachable from startLevel in breadth-first order
+     */
+    public List<String> breadthFirstTraversal(String startLevel) {
+        int startId = getLevelId(startLevel);
+        if (startId < 0) return new ArrayList<>();
+        
+        int[] order = new int[levelNames.length];
+        int count = breadthFirstTraversal(startId, order);
+        // Names are resolved lazily instead of copying them into a new list
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index >= count) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return levelNames[order[index]];
+            }
+            
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+    
+    /**
+     * Resets to the initial state (only the start levels unlocked)
+     */
+    public void reset() {
+        unlocked.clear();
+        unlocked.or(initiallyUnlocked);
+        completed.clear();
+        unlockedCount = initiallyUnlocked.cardinality();
+        completedCount = 0;
+    }
+    
+    /**
+     * Approximate heap footprint of the graph structure, excluding the name strings
+     */
+    public long getMemoryBytes() {
+        return 4L * (offsets.length + targets.length + visitStamp.length + queue.length)
+            + 3L * (levelNames.length / 8 + 8);
+    }
+}
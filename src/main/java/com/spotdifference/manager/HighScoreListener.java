@@ -0,0 +1,9 @@
+package com.spotdifference.manager;
+
+/**
+ * Notified after the leaderboards change.
+ * Called on the thread that changed them, which need not be the EDT.
+ */
+public interface HighScoreListener {
+    void highScoresChanged(LeaderboardSnapshot snapshot);
+}
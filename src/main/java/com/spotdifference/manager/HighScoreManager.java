@@ -2,87 +2,167 @@ package com.spotdifference.manager;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.spotdifference.model.PlayerScore;
 
 /**
  * Function 5: High Score Leaderboard
- * Uses LinkedList<PlayerScore> to maintain a persistent, sorted list of top scores.
- * Demonstrates list traversal and insertion to maintain sorted order.
+ * Keeps a global top-K leaderboard plus one top-K board per level, each a
+ * bounded min-heap (TopKScores): a score that doesn't qualify is rejected in
+ * O(1), one that does is inserted in O(log K).
+ * Board sizes default to 10 and can be changed with
+ * -Dspotdifference.leaderboard.size and -Dspotdifference.leaderboard.levelSize.
+ * Scores are persisted through an append-only ScoreLog: adding a score writes
+ * one small frame instead of re-serializing the whole list. The writes run
+ * behind the caller's back on the PersistenceService writer, so the EDT never
+ * touches the disk when a score is submitted.
+ *
+ * One shared instance per process, loaded from disk once on first use.
+ * Changes are synchronized; after each one an immutable LeaderboardSnapshot
+ * is published, so readers never lock, and listeners are notified.
  */
 public class HighScoreManager {
-    private LinkedList<PlayerScore> highScores;
-    private static final int MAX_SCORES = 10;
-    private static final String SAVE_FILE = "highscores.dat";
+    private static final int MAX_SCORES = Integer.getInteger("spotdifference.leaderboard.size", 10);
+    private static final int MAX_SCORES_PER_LEVEL = Integer.getInteger("spotdifference.leaderboard.levelSize", 10);
+    // Pre-log save file, migrated into LOG_FILE once
+    private static final String LEGACY_SAVE_FILE = "highscores.dat";
+    private static final String LOG_FILE = "highscores.log";
+    // Compact once the log holds this many frames (and twice what the boards retain)
+    private static final int COMPACT_THRESHOLD = 80;
     
-    public HighScoreManager() {
-        this.highScores = new LinkedList<>();
+    private static class Holder {
+        static final HighScoreManager INSTANCE = new HighScoreManager(MAX_SCORES, MAX_SCORES_PER_LEVEL);
+    }
+    
+    private final int maxScoresPerLevel;
+    private final TopKScores globalScores;
+    // Level name -> that level's board
+    private final Map<String, TopKScores> levelScores;
+    private long nextSequence;
+    private int retainedAtLastCompaction;
+    // Latest published state, read without locking
+    private volatile LeaderboardSnapshot snapshot;
+    private final List<HighScoreListener> listeners;
+    
+    private final ScoreLog scoreLog;
+    // Log writes waiting for the persistence writer, in submission order
+    private final Queue<LogWrite> pendingWrites;
+    // Frames in the log once all pending writes are done
+    private int logFrames;
+    
+    /**
+     * One deferred change to the score log
+     */
+    private interface LogWrite {
+        void writeTo(ScoreLog log) throws IOException;
+    }
+    
+    /**
+     * @param maxScores Size of the global leaderboard
+     * @param maxScoresPerLevel Size of each level's leaderboard
+     */
+    private HighScoreManager(int maxScores, int maxScoresPerLevel) {
+        this.maxScoresPerLevel = maxScoresPerLevel;
+        this.globalScores = new TopKScores(maxScores);
+        this.levelScores = new HashMap<>();
+        this.scoreLog = new ScoreLog(Paths.get(LOG_FILE));
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.listeners = new CopyOnWriteArrayList<>();
         loadScores();
+        publishSnapshot();
     }
     
     /**
-     * Adds a new score to the leaderboard.
-     * Demonstrates LinkedList traversal and insertion to maintain sorted order.
+     * The shared leaderboard; the first call loads it from disk
+     */
+    public static HighScoreManager getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    /**
+     * Loads the leaderboard on a background thread, so the first screen that
+     * needs it doesn't wait for the disk
+     */
+    public static void preloadAsync() {
+        Thread loader = new Thread(HighScoreManager::getInstance, "highscore-preload");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    public void addListener(HighScoreListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(HighScoreListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Current state of all leaderboards (immutable, no locking)
+     */
+    public LeaderboardSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Adds a new score to the global and the level leaderboard.
+     * The score is saved if it made it onto either board.
      * 
      * @param playerScore The score to add
-     * @return true if the score was added (made it to top 10), false otherwise
+     * @return true if the score made it onto the global leaderboard, false otherwise
      */
     public boolean addScore(PlayerScore playerScore) {
-        // Find the correct position to insert (maintain sorted order - highest scores first)
-        // We want descending order: [100, 90, 80, 70, ...]
-        int insertPosition = 0;
-        for (PlayerScore score : highScores) {
-            // compareTo returns negative if playerScore should come BEFORE score (i.e., playerScore is higher)
-            // compareTo returns positive if playerScore should come AFTER score (i.e., playerScore is lower)
-            if (playerScore.compareTo(score) > 0) {
-                // playerScore is lower than current score, so it should go after this position
-                insertPosition++;
-            } else {
-                // playerScore is higher or equal to current score, insert here
-                break;
+        boolean madeGlobalBoard;
+        LeaderboardSnapshot published;
+        synchronized (this) {
+            long sequence = nextSequence++;
+            boolean madeLevelBoard = getLevelBoard(playerScore.getLevelName()).offer(playerScore, sequence);
+            madeGlobalBoard = globalScores.offer(playerScore, sequence);
+            if (!madeGlobalBoard && !madeLevelBoard) {
+                return false;
             }
+            queueWrite(log -> log.append(playerScore));
+            published = publishSnapshot();
         }
-        
-        // Check if score qualifies for the leaderboard
-        if (insertPosition < MAX_SCORES || highScores.size() < MAX_SCORES) {
-            // Insert at the correct position to maintain descending order (highest first)
-            highScores.add(insertPosition, playerScore);
-            
-            // Remove excess scores if list exceeds maximum
-            while (highScores.size() > MAX_SCORES) {
-                highScores.removeLast();
-            }
-            
-            saveScores();
-            return true;
-        }
-        
-        return false;
+        notifyListeners(published);
+        return madeGlobalBoard;
+    }
+    
+    private TopKScores getLevelBoard(String levelName) {
+        return levelScores.computeIfAbsent(levelName, name -> new TopKScores(maxScoresPerLevel));
     }
     
     /**
      * Gets all high scores
      */
     public LinkedList<PlayerScore> getHighScores() {
-        return new LinkedList<>(highScores);
+        return new LinkedList<>(snapshot.getGlobalScores());
     }
     
     /**
      * Gets high scores for a specific level
      */
     public LinkedList<PlayerScore> getHighScoresForLevel(String levelName) {
-        LinkedList<PlayerScore> levelScores = new LinkedList<>();
-        for (PlayerScore score : highScores) {
-            if (score.getLevelName().equals(levelName)) {
-                levelScores.add(score);
-            }
-        }
-        return levelScores;
+        return new LinkedList<>(snapshot.getLevelScores(levelName));
+    }
+    
+    /**
+     * Names of all levels that have at least one score
+     */
+    public List<String> getLevelsWithScores() {
+        return snapshot.getLevelNames();
     }
     
     /**
@@ -90,69 +170,167 @@ public class HighScoreManager {
      * This is different from qualifying for the leaderboard - this checks if it's the new #1
      */
     public boolean isHighScore(int score) {
-        if (highScores.isEmpty()) {
+        PlayerScore best = snapshot.getBest();
+        if (best == null) {
             return true; // First score is always a high score
         }
         // Only show "NEW HIGH SCORE!" if it beats the highest (first) score
-        int highestScore = highScores.getFirst().getScore();
-        return score > highestScore;
+        return score > best.getScore();
+    }
+    
+    /**
+     * True if the score would get onto the level's leaderboard or the global one
+     * (same rule as TopKScores.wouldAccept)
+     */
+    public boolean qualifiesForLeaderboard(int score, String levelName) {
+        return score >= getMinimumScoreForLevel(levelName) || score >= getMinimumScore();
     }
     
     /**
      * Gets the minimum score needed to make the leaderboard
      */
     public int getMinimumScore() {
-        if (highScores.isEmpty()) {
-            return 0;
-        }
-        if (highScores.size() < MAX_SCORES) {
-            return 0;
-        }
-        return highScores.getLast().getScore();
+        return snapshot.getGlobalMinimum();
+    }
+    
+    /**
+     * Gets the minimum score needed to make a level's leaderboard
+     */
+    public int getMinimumScoreForLevel(String levelName) {
+        return snapshot.getLevelMinimum(levelName);
     }
     
     /**
      * Clears all high scores
      */
     public void clearScores() {
-        highScores.clear();
-        saveScores();
+        LeaderboardSnapshot published;
+        synchronized (this) {
+            globalScores.clear();
+            levelScores.clear();
+            queueWrite(ScoreLog::appendClear);
+            published = publishSnapshot();
+        }
+        notifyListeners(published);
     }
     
     /**
-     * Saves high scores to file
+     * Copies the boards into a new immutable snapshot. Caller holds the lock.
      */
-    private void saveScores() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(SAVE_FILE))) {
-            oos.writeObject(highScores);
-        } catch (IOException e) {
-            System.err.println("Error saving high scores: " + e.getMessage());
+    private LeaderboardSnapshot publishSnapshot() {
+        Map<String, List<PlayerScore>> levelLists = new HashMap<>();
+        Map<String, Integer> levelMinimums = new HashMap<>();
+        for (Map.Entry<String, TopKScores> entry : levelScores.entrySet()) {
+            // toSortedList() is cached per board, so unchanged levels cost nothing to copy
+            levelLists.put(entry.getKey(), entry.getValue().toSortedList());
+            levelMinimums.put(entry.getKey(), entry.getValue().getMinimumScore());
+        }
+        snapshot = new LeaderboardSnapshot(globalScores.toSortedList(), globalScores.getMinimumScore(),
+            levelLists, levelMinimums);
+        return snapshot;
+    }
+    
+    private void notifyListeners(LeaderboardSnapshot published) {
+        for (HighScoreListener listener : listeners) {
+            listener.highScoresChanged(published);
         }
     }
     
     /**
-     * Loads high scores from file
+     * Hands a log write to the persistence writer. All writes queued before the
+     * writer gets to them go out in one batch.
+     */
+    private void queueWrite(LogWrite write) {
+        pendingWrites.add(write);
+        logFrames++;
+        PersistenceService.getInstance().submit(LOG_FILE, this::drainPendingWrites);
+        compactIfNeeded();
+    }
+    
+    /**
+     * Runs on the persistence writer thread
+     */
+    private void drainPendingWrites() {
+        LogWrite write;
+        while ((write = pendingWrites.poll()) != null) {
+            try {
+                write.writeTo(scoreLog);
+            } catch (IOException e) {
+                System.err.println("Error saving high scores: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Loads high scores by replaying the log (migrating the old save file first if needed)
      */
-    @SuppressWarnings("unchecked")
     private void loadScores() {
-        File file = new File(SAVE_FILE);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(
-                    new FileInputStream(SAVE_FILE))) {
-                highScores = (LinkedList<PlayerScore>) ois.readObject();
-                // Ensure scores are sorted in descending order (highest first)
-                // This fixes any existing files that might have been saved with incorrect order
-                highScores.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
-                // Keep only top MAX_SCORES
-                while (highScores.size() > MAX_SCORES) {
-                    highScores.removeLast();
-                }
-            } catch (IOException | ClassNotFoundException e) {
-                System.err.println("Error loading high scores: " + e.getMessage());
-                highScores = new LinkedList<>();
+        try {
+            boolean migrate = !scoreLog.exists() && new File(LEGACY_SAVE_FILE).exists();
+            List<PlayerScore> recovered = scoreLog.recover();
+            if (migrate) {
+                recovered = loadLegacyScores();
+                scoreLog.rewrite(recovered);
+            }
+            // Log order is submission order, so replaying it rebuilds the boards exactly
+            for (PlayerScore score : recovered) {
+                long sequence = nextSequence++;
+                getLevelBoard(score.getLevelName()).offer(score, sequence);
+                globalScores.offer(score, sequence);
             }
+        } catch (IOException e) {
+            System.err.println("Error loading high scores: " + e.getMessage());
+        }
+        retainedAtLastCompaction = getRetainedScores().size();
+        logFrames = scoreLog.getFrameCount();
+        compactIfNeeded();
+    }
+    
+    /**
+     * Compacts the log in the background once it holds far more frames than the boards retain
+     */
+    private void compactIfNeeded() {
+        if (logFrames > COMPACT_THRESHOLD && logFrames > retainedAtLastCompaction * 2) {
+            // Snapshot taken now, written after every append queued before it
+            List<PlayerScore> retained = getRetainedScores();
+            retainedAtLastCompaction = retained.size();
+            logFrames = retained.size();
+            pendingWrites.add(log -> log.compact(retained));
+            PersistenceService.getInstance().submit(LOG_FILE, this::drainPendingWrites);
+        }
+    }
+    
+    /**
+     * Every score on any board, once each, in submission order
+     */
+    private List<PlayerScore> getRetainedScores() {
+        Map<PlayerScore, Long> sequences = new IdentityHashMap<>();
+        globalScores.collectInto(sequences);
+        for (TopKScores board : levelScores.values()) {
+            board.collectInto(sequences);
+        }
+        List<PlayerScore> retained = new ArrayList<>(sequences.keySet());
+        retained.sort((a, b) -> Long.compare(sequences.get(a), sequences.get(b)));
+        return retained;
+    }
+    
+    /**
+     * Reads the old Java-serialized save file and keeps it as a .bak copy
+     */
+    @SuppressWarnings("unchecked")
+    private List<PlayerScore> loadLegacyScores() {
+        File file = new File(LEGACY_SAVE_FILE);
+        List<PlayerScore> scores = new LinkedList<>();
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            scores = (LinkedList<PlayerScore>) ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading high scores: " + e.getMessage());
+        }
+        if (!file.renameTo(new File(LEGACY_SAVE_FILE + ".bak"))) {
+            System.err.println("Could not rename " + LEGACY_SAVE_FILE + " after migrating it");
         }
+        System.out.println("Migrated " + scores.size() + " high scores to " + LOG_FILE);
+        return scores;
     }
 }
 
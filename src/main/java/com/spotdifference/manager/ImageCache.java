@@ -0,0 +1,154 @@
+package com.spotdifference.manager;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of decoded images keyed by resource path.
+ * Uses an access-ordered LinkedHashMap as an LRU list bounded by a byte budget.
+ * Images pushed out of the budget are kept behind SoftReferences, so they are
+ * still reused unless the JVM actually runs short of memory. Images mapped from
+ * the RasterStore count against the budget at their mapped size, and are
+ * dropped outright when evicted: heap pressure would never clear a soft
+ * reference to them, and mapping them again takes about a millisecond.
+ * Cached images are shared between screens and must not be drawn into; the
+ * mapped ones throw UnsupportedOperationException on any pixel write.
+ *
+ * The budget defaults to 64 MB and can be changed with
+ * -Dspotdifference.imageCache.mb=&lt;megabytes&gt;.
+ */
+public class ImageCache {
+    private static final long DEFAULT_BUDGET_MB = 64;
+    private static final ImageCache INSTANCE = new ImageCache(
+        Long.getLong("spotdifference.imageCache.mb", DEFAULT_BUDGET_MB) * 1024 * 1024);
+    
+    private final long budgetBytes;
+    private final LinkedHashMap<String, BufferedImage> strongEntries;
+    private final Map<String, SoftReference<BufferedImage>> softEntries;
+    private long currentBytes;
+    
+    private long hits;
+    private long softHits;
+    private long misses;
+    private long evictions;
+    
+    public ImageCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        // accessOrder = true: iteration order is least-recently-used first
+        this.strongEntries = new LinkedHashMap<>(16, 0.75f, true);
+        this.softEntries = new HashMap<>();
+    }
+    
+    public static ImageCache getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Returns the cached image or null. A soft-referenced image that is still
+     * alive is promoted back into the LRU budget.
+     */
+    public synchronized BufferedImage get(String key) {
+        BufferedImage image = strongEntries.get(key);
+        if (image != null) {
+            hits++;
+            return image;
+        }
+        
+        SoftReference<BufferedImage> ref = softEntries.remove(key);
+        image = (ref != null) ? ref.get() : null;
+        if (image != null) {
+            softHits++;
+            putStrong(key, image);
+            return image;
+        }
+        
+        misses++;
+        return null;
+    }
+    
+    public synchronized void put(String key, BufferedImage image) {
+        softEntries.remove(key);
+        putStrong(key, image);
+    }
+    
+    public synchronized void clear() {
+        strongEntries.clear();
+        softEntries.clear();
+        currentBytes = 0;
+    }
+    
+    private void putStrong(String key, BufferedImage image) {
+        BufferedImage previous = strongEntries.put(key, image);
+        if (previous != null) {
+            currentBytes -= estimateBytes(previous);
+        }
+        currentBytes += estimateBytes(image);
+        
+        // Evict least-recently-used entries, but never the one just added
+        Iterator<Map.Entry<String, BufferedImage>> iterator = strongEntries.entrySet().iterator();
+        while (currentBytes > budgetBytes && strongEntries.size() > 1) {
+            Map.Entry<String, BufferedImage> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            iterator.remove();
+            currentBytes -= estimateBytes(eldest.getValue());
+            if (!RasterStore.isMapped(eldest.getValue())) {
+                softEntries.put(eldest.getKey(), new SoftReference<>(eldest.getValue()));
+            }
+            evictions++;
+        }
+        
+        // Drop soft entries the GC has already cleared
+        softEntries.values().removeIf(ref -> ref.get() == null);
+    }
+    
+    /**
+     * Size of the image's pixel data in bytes (on the heap, or mapped for
+     * images from the RasterStore)
+     */
+    public static long estimateBytes(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        long bitsPerElement = DataBuffer.getDataTypeSize(buffer.getDataType());
+        return (long) buffer.getSize() * buffer.getNumBanks() * bitsPerElement / 8;
+    }
+    
+    public synchronized long getHitCount() {
+        return hits;
+    }
+    
+    /**
+     * Hits served from soft references after the image had left the byte budget
+     */
+    public synchronized long getSoftHitCount() {
+        return softHits;
+    }
+    
+    public synchronized long getMissCount() {
+        return misses;
+    }
+    
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+    
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+    
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "ImageCache{entries=" + strongEntries.size() + ", soft=" + softEntries.size()
+            + ", bytes=" + currentBytes + "/" + budgetBytes + ", hits=" + hits
+            + ", softHits=" + softHits + ", misses=" + misses + ", evictions=" + evictions + "}";
+    }
+}
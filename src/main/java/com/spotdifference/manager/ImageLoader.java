@@ -0,0 +1,173 @@
+package com.spotdifference.manager;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+
+import javax.imageio.ImageIO;
+
+import com.spotdifference.model.LevelData;
+
+/**
+ * Background image loader shared by all game screens.
+ * Decodes level images on a small pool of daemon threads so the EDT never
+ * waits for ImageIO, and both images of a level decode in parallel.
+ * Decoded images go into the process-wide ImageCache, so replaying a level or
+ * opening a prefetched one never decodes twice. Concurrent requests for the
+ * same path share one decode.
+ * Each PNG is decoded only once per install: the pixels are written to the
+ * RasterStore, and later loads (also in later runs) map that file instead.
+ *
+ * Returned images are shared through the cache and must be treated as
+ * read-only. Mapped ones enforce it: writing a pixel (setRGB, drawing into
+ * createGraphics) throws UnsupportedOperationException. Draw a copy to modify.
+ */
+public class ImageLoader {
+    // Source stamp of a PNG whose size and modification time can't be read
+    private static final long UNKNOWN_STAMP = 0;
+    private static final ImageLoader INSTANCE = new ImageLoader();
+    
+    private final ExecutorService decoders;
+    private final ImageCache cache;
+    private final RasterStore rasterStore;
+    // Resource path -> decode currently in progress
+    private final Map<String, CompletableFuture<BufferedImage>> inFlight;
+    
+    private ImageLoader() {
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.decoders = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "image-decoder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        this.cache = ImageCache.getInstance();
+        this.rasterStore = RasterStore.getInstance();
+        this.inFlight = new ConcurrentHashMap<>();
+    }
+    
+    public static ImageLoader getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Starts (or joins) decoding of a classpath image.
+     * The future completes with null if the image cannot be read.
+     *
+     * @param imagePath Classpath resource path, e.g. "images/beach1.png"
+     */
+    public CompletableFuture<BufferedImage> load(String imagePath) {
+        BufferedImage cached = cache.get(imagePath);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<BufferedImage> future = inFlight.computeIfAbsent(imagePath, path ->
+            CompletableFuture.supplyAsync(() -> {
+                BufferedImage img = decode(path);
+                if (img != null) {
+                    cache.put(path, img);
+                }
+                return img;
+            }, decoders));
+        // Registered outside computeIfAbsent: the decode may already be done
+        future.whenComplete((img, error) -> inFlight.remove(imagePath, future));
+        return future;
+    }
+    
+    /**
+     * Decodes an image into the cache in the background so a later load() returns immediately
+     */
+    public void prefetch(String imagePath) {
+        load(imagePath);
+    }
+    
+    /**
+     * Prefetches both images of a level
+     */
+    public void prefetchLevel(LevelData levelData) {
+        if (levelData != null) {
+            prefetch(levelData.getImage1Path());
+            prefetch(levelData.getImage2Path());
+        }
+    }
+    
+    /**
+     * Prefetches every level in the list (e.g. the levels a completion would unlock)
+     */
+    public void prefetchLevels(List<String> levelNames, LevelManager levelManager) {
+        for (String levelName : levelNames) {
+            prefetchLevel(levelManager.getLevel(levelName));
+        }
+    }
+    
+    /**
+     * Maps the cached raster if there is an up-to-date one; otherwise decodes
+     * the PNG and caches its raster for next time. Without a source stamp a
+     * cached raster can't be checked, so the PNG is always decoded.
+     */
+    private BufferedImage decode(String imagePath) {
+        URL resource = getClass().getClassLoader().getResource(imagePath);
+        if (resource == null) {
+            System.out.println("Could not load image: " + imagePath);
+            return null;
+        }
+        long stamp = sourceStamp(resource);
+        boolean useRasterStore = stamp != UNKNOWN_STAMP;
+        BufferedImage mapped = useRasterStore ? rasterStore.load(imagePath, stamp) : null;
+        if (mapped != null) {
+            return mapped;
+        }
+        
+        try (InputStream inputStream = resource.openStream()) {
+            BufferedImage img = ImageIO.read(inputStream);
+            if (img != null) {
+                if (!useRasterStore) {
+                    return img;
+                }
+                rasterStore.store(imagePath, stamp, img);
+                // Hand out the mapped copy, so the decoded pixels can leave the heap now
+                mapped = rasterStore.load(imagePath, stamp);
+                return (mapped != null) ? mapped : img;
+            }
+            System.out.println("Could not load image: " + imagePath);
+        } catch (IOException e) {
+            System.err.println("Error loading image " + imagePath + ": " + e.getMessage());
+        }
+        return null;
+    }
+    
+    /**
+     * Size and modification time of the source PNG, so a changed image is decoded again
+     * (UNKNOWN_STAMP when neither is known)
+     */
+    private static long sourceStamp(URL resource) {
+        try {
+            if ("file".equals(resource.getProtocol())) {
+                Path file = Paths.get(resource.toURI());
+                return Files.size(file) * 31 + Files.getLastModifiedTime(file).toMillis();
+            }
+            if ("jar".equals(resource.getProtocol())) {
+                JarEntry entry = ((JarURLConnection) resource.openConnection()).getJarEntry();
+                return entry.getSize() * 31 + entry.getTime();
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            System.err.println("Error reading image stamp for " + resource + ": " + e.getMessage());
+        }
+        return UNKNOWN_STAMP;
+    }
+}
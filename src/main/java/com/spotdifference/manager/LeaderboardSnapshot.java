@@ -0,0 +1,74 @@
+package com.spotdifference.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.spotdifference.model.PlayerScore;
+
+/**
+ * Immutable view of every leaderboard at one point in time.
+ * HighScoreManager publishes a new snapshot after each change, so readers on
+ * any thread get a consistent picture without taking a lock.
+ */
+public final class LeaderboardSnapshot {
+    private final List<PlayerScore> globalScores;
+    // Level name -> that level's scores, best first
+    private final Map<String, List<PlayerScore>> levelScores;
+    private final int globalMinimum;
+    private final Map<String, Integer> levelMinimums;
+    private final List<String> levelNames;
+    
+    LeaderboardSnapshot(List<PlayerScore> globalScores, int globalMinimum,
+                        Map<String, List<PlayerScore>> levelScores, Map<String, Integer> levelMinimums) {
+        this.globalScores = globalScores;
+        this.globalMinimum = globalMinimum;
+        this.levelScores = Collections.unmodifiableMap(levelScores);
+        this.levelMinimums = Collections.unmodifiableMap(levelMinimums);
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, List<PlayerScore>> entry : levelScores.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                names.add(entry.getKey());
+            }
+        }
+        names.sort(null);
+        this.levelNames = Collections.unmodifiableList(names);
+    }
+    
+    /**
+     * The global leaderboard, best first
+     */
+    public List<PlayerScore> getGlobalScores() {
+        return globalScores;
+    }
+    
+    /**
+     * A level's leaderboard, best first (empty if nobody finished the level yet)
+     */
+    public List<PlayerScore> getLevelScores(String levelName) {
+        return levelScores.getOrDefault(levelName, Collections.emptyList());
+    }
+    
+    /**
+     * Names of all levels that have at least one score, sorted
+     */
+    public List<String> getLevelNames() {
+        return levelNames;
+    }
+    
+    /**
+     * Best score overall, or null if there are no scores
+     */
+    public PlayerScore getBest() {
+        return globalScores.isEmpty() ? null : globalScores.get(0);
+    }
+    
+    public int getGlobalMinimum() {
+        return globalMinimum;
+    }
+    
+    public int getLevelMinimum(String levelName) {
+        return levelMinimums.getOrDefault(levelName, 0);
+    }
+}
@@ -1,6 +1,12 @@
 package com.spotdifference.manager;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import com.spotdifference.model.LevelData;
@@ -9,19 +15,70 @@ import com.spotdifference.model.LevelData;
  * Function 1: Level Management and Selection
  * Uses HashMap<String, LevelData> for O(1) average-time level retrieval.
  * The level's name serves as the key, and LevelData object as the value.
+ *
+ * Levels come from a level pack (see LevelPack) when one is found: only its
+ * index is read up front, and each level's differences are read the first
+ * time getLevel() asks for it. The pack is levels.pack in the working
+ * directory, or -Dspotdifference.levelPack=&lt;file&gt;. Without a pack the
+ * built-in levels below are used.
  */
 public class LevelManager {
     private HashMap<String, LevelData> levels;
+    // All level names in display order (loaded or not)
+    private final Set<String> levelNames;
+    // Null when using the built-in levels
+    private final LevelPack levelPack;
+    
+    /**
+     * The pack is opened once and shared; it is read-only
+     */
+    private static class PackHolder {
+        static final LevelPack DEFAULT_PACK = openDefaultPack();
+    }
     
     public LevelManager() {
+        this(PackHolder.DEFAULT_PACK);
+    }
+    
+    /**
+     * @param levelPack Pack to read levels from, or null for the built-in levels
+     */
+    public LevelManager(LevelPack levelPack) {
         // HashMap: level name -> LevelData (fast O(1) lookup)
         this.levels = new HashMap<>();
-        initializeLevels();
+        this.levelNames = new LinkedHashSet<>();
+        this.levelPack = levelPack;
+        if (levelPack != null) {
+            for (LevelPack.Entry entry : levelPack.getEntries()) {
+                levelNames.add(entry.getLevelName());
+            }
+        } else {
+            initializeLevels();
+        }
+    }
+    
+    private static LevelPack openDefaultPack() {
+        Path packFile = Paths.get(System.getProperty("spotdifference.levelPack", "levels.pack"));
+        if (!Files.exists(packFile)) {
+            return null;
+        }
+        try {
+            return LevelPack.open(packFile);
+        } catch (IOException e) {
+            System.err.println("Error opening level pack, using built-in levels: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * The pack levels are read from, or null for the built-in levels
+     */
+    public LevelPack getLevelPack() {
+        return levelPack;
     }
     
     /**
-     * Initializes all game levels with their data.
-     * In a real application, this could load from files or a database.
+     * Initializes the built-in game levels (used when there is no level pack).
      */
     private void initializeLevels() {
         // Level 1: Beach Scene (Easy)
@@ -35,7 +92,7 @@ public class LevelManager {
         beach.addDifference(55, 297, 20);   // Difference 3
         beach.addDifference(485, 312, 20);  // Difference 4
         beach.addDifference(85, 403, 20);   // Difference 5
-        levels.put("Beach Scene", beach);
+        addLevel("Beach Scene", beach);
         
         // Level 2: Jungle Scene (Medium)
         LevelData jungle = new LevelData("Jungle Scene", 
@@ -50,7 +107,7 @@ public class LevelManager {
         jungle.addDifference(83, 181, 18);   // Difference 5
         jungle.addDifference(55, 96, 18);    // Difference 6
         jungle.addDifference(445, 87, 18);   // Difference 7
-        levels.put("Jungle Scene", jungle);
+        addLevel("Jungle Scene", jungle);
         
         // Level 3: City Scene (Hard) - 10 differences
         LevelData city = new LevelData("City Scene", 
@@ -69,7 +126,7 @@ public class LevelManager {
         city.addDifference(293, 128, 15);   // Difference 8
         city.addDifference(418, 218, 15);   // Difference 9
         city.addDifference(516, 174, 15);   // Difference 10
-        levels.put("City Scene", city);
+        addLevel("City Scene", city);
         
         // Level 4: Space Scene (Expert) - 12 differences
         LevelData space = new LevelData("Space Scene", 
@@ -90,7 +147,7 @@ public class LevelManager {
         space.addDifference(40, 58, 12);     // Difference 10
         space.addDifference(102, 80, 12);    // Difference 11
         space.addDifference(103, 379, 12);   // Difference 12
-        levels.put("Space Scene", space);
+        addLevel("Space Scene", space);
         
         // Level 5: Fantasy Scene (Master) - 15 differences
         LevelData fantasy = new LevelData("Fantasy Scene", 
@@ -114,7 +171,7 @@ public class LevelManager {
         fantasy.addDifference(77, 390, 10);   // Difference 13
         fantasy.addDifference(186, 419, 10);  // Difference 14
         fantasy.addDifference(238, 227, 10);  // Difference 15
-        levels.put("Fantasy Scene", fantasy);
+        addLevel("Fantasy Scene", fantasy);
     }
     
     /**
@@ -125,7 +182,17 @@ public class LevelManager {
      * @return The LevelData object, or null if not found
      */
     public LevelData getLevel(String levelName) {
-        return levels.get(levelName);
+        LevelData level = levels.get(levelName);
+        if (level == null && levelPack != null && levelNames.contains(levelName)) {
+            // First request for a pack level: read its difference table now
+            try {
+                level = levelPack.loadLevel(levelName);
+                levels.put(levelName, level);
+            } catch (IOException e) {
+                System.err.println("Error loading level " + levelName + ": " + e.getMessage());
+            }
+        }
+        return level;
     }
     
     /**
@@ -133,27 +200,48 @@ public class LevelManager {
      */
     public void addLevel(String levelName, LevelData levelData) {
         levels.put(levelName, levelData);
+        levelNames.add(levelName);
     }
     
     /**
      * Checks if a level exists
      */
     public boolean hasLevel(String levelName) {
-        return levels.containsKey(levelName);
+        return levelNames.contains(levelName);
     }
     
     /**
      * Gets all available level names
      */
     public Set<String> getAllLevelNames() {
-        return levels.keySet();
+        return Collections.unmodifiableSet(levelNames);
+    }
+    
+    /**
+     * Difficulty rating of a level, without loading it if it comes from a pack
+     */
+    public int getDifficulty(String levelName) {
+        LevelData level = levels.get(levelName);
+        if (level != null) return level.getDifficulty();
+        LevelPack.Entry entry = (levelPack != null) ? levelPack.getEntry(levelName) : null;
+        return (entry != null) ? entry.getDifficulty() : 0;
+    }
+    
+    /**
+     * Number of differences in a level, without loading it if it comes from a pack
+     */
+    public int getDifferenceCount(String levelName) {
+        LevelData level = levels.get(levelName);
+        if (level != null) return level.getTotalDifferences();
+        LevelPack.Entry entry = (levelPack != null) ? levelPack.getEntry(levelName) : null;
+        return (entry != null) ? entry.getDifferenceCount() : 0;
     }
     
     /**
      * Gets the total number of levels
      */
     public int getLevelCount() {
-        return levels.size();
+        return levelNames.size();
     }
 }
 
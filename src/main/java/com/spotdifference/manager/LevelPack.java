@@ -0,0 +1,277 @@
+package com.spotdifference.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.spotdifference.manager.LevelProgressionGraph.Prerequisite;
+import com.spotdifference.model.Difference;
+import com.spotdifference.model.HitMask;
+import com.spotdifference.model.LevelData;
+
+/**
+ * Read side of the binary level-pack format (written by tools.LevelPackWriter).
+ * Opening a pack reads only the header, the level index and the graph edges;
+ * a level's difference table is read from disk the first time it is loaded,
+ * so a pack with hundreds of levels opens in one small read.
+ *
+ * FILE LAYOUT (big-endian):
+ *   header: magic "SDLP" (int), version (int), level count (int), edge count (int),
+ *           index + edge section length (int), CRC32 of that section (int)
+ *   index:  per level: name (short length + UTF-8), image 1 path, image 2 path,
+ *           difficulty (byte), flags (byte, bit 0 = unlocked at start),
+ *           prerequisite rule (byte), k (byte), difference count (int),
+ *           table offset (long), table length (int), table CRC32 (int)
+ *   edges:  from level index (int), to level index (int)
+ *   tables: per difference: kind (byte), then
+ *           circle: x, y, radius (ints)
+ *           mask:   x, y, radius, origin x, origin y, width, height, run count (ints)
+ *                   and the run lengths (ints, see HitMask.fromRunLengths)
+ * Images are referenced by their resource paths, not embedded.
+ */
+public class LevelPack implements AutoCloseable {
+    public static final int MAGIC = 0x53444C50; // "SDLP"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+    
+    public static final byte KIND_CIRCLE = 0;
+    public static final byte KIND_MASK = 1;
+    public static final int FLAG_UNLOCKED_AT_START = 1;
+    
+    private final Path packFile;
+    private final FileChannel channel;
+    private final List<Entry> entries;
+    private final HashMap<String, Entry> entriesByName;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    
+    /**
+     * One level in the index; enough to draw a level card without loading the level
+     */
+    public static class Entry {
+        private final String levelName;
+        private final String image1Path;
+        private final String image2Path;
+        private final int difficulty;
+        private final boolean unlockedAtStart;
+        private final Prerequisite prerequisite;
+        private final int prerequisiteK;
+        private final int differenceCount;
+        private final long tableOffset;
+        private final int tableLength;
+        private final int tableCrc;
+        
+        Entry(ByteBuffer in) {
+            this.levelName = readString(in);
+            this.image1Path = readString(in);
+            this.image2Path = readString(in);
+            this.difficulty = in.get();
+            this.unlockedAtStart = (in.get() & FLAG_UNLOCKED_AT_START) != 0;
+            int rule = in.get();
+            if (rule < 0 || rule >= Prerequisite.values().length) {
+                throw new IllegalArgumentException("unknown prerequisite rule " + rule);
+            }
+            this.prerequisite = Prerequisite.values()[rule];
+            this.prerequisiteK = in.get() & 0xFF;
+            this.differenceCount = in.getInt();
+            this.tableOffset = in.getLong();
+            this.tableLength = in.getInt();
+            this.tableCrc = in.getInt();
+        }
+        
+        public String getLevelName() {
+            return levelName;
+        }
+        
+        public int getDifficulty() {
+            return difficulty;
+        }
+        
+        public boolean isUnlockedAtStart() {
+            return unlockedAtStart;
+        }
+        
+        public Prerequisite getPrerequisite() {
+            return prerequisite;
+        }
+        
+        public int getPrerequisiteK() {
+            return prerequisiteK;
+        }
+        
+        public int getDifferenceCount() {
+            return differenceCount;
+        }
+    }
+    
+    private LevelPack(Path packFile, FileChannel channel) throws IOException {
+        this.packFile = packFile;
+        this.channel = channel;
+        
+        ByteBuffer header = readFully(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException(packFile + " is not a level pack");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException(packFile + " has unsupported level pack version " + version);
+        }
+        int levelCount = header.getInt();
+        int edgeCount = header.getInt();
+        int sectionLength = header.getInt();
+        int sectionCrc = header.getInt();
+        if (levelCount < 0 || edgeCount < 0 || sectionLength < 0) {
+            throw new IOException(packFile + " has a damaged header");
+        }
+        
+        ByteBuffer section = readFully(HEADER_SIZE, sectionLength);
+        CRC32 crc = new CRC32();
+        crc.update(section.array(), 0, sectionLength);
+        if ((int) crc.getValue() != sectionCrc) {
+            throw new IOException(packFile + " has a damaged level index");
+        }
+        
+        this.entries = new ArrayList<>(levelCount);
+        this.entriesByName = new HashMap<>();
+        try {
+            for (int i = 0; i < levelCount; i++) {
+                Entry entry = new Entry(section);
+                entries.add(entry);
+                entriesByName.put(entry.levelName, entry);
+            }
+            this.edgeFrom = new int[edgeCount];
+            this.edgeTo = new int[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                edgeFrom[i] = section.getInt();
+                edgeTo[i] = section.getInt();
+                if (edgeFrom[i] < 0 || edgeFrom[i] >= levelCount || edgeTo[i] < 0 || edgeTo[i] >= levelCount) {
+                    throw new IOException(packFile + " has an edge to an unknown level");
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(packFile + " has a damaged level index: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Opens a pack and reads its index. The file stays open for lazy loads until close().
+     */
+    public static LevelPack open(Path packFile) throws IOException {
+        FileChannel channel = FileChannel.open(packFile, StandardOpenOption.READ);
+        try {
+            return new LevelPack(packFile, channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Index entries in pack order
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+    
+    public Entry getEntry(String levelName) {
+        return entriesByName.get(levelName);
+    }
+    
+    public int getLevelCount() {
+        return entries.size();
+    }
+    
+    public int getEdgeCount() {
+        return edgeFrom.length;
+    }
+    
+    public String getEdgeFrom(int edge) {
+        return entries.get(edgeFrom[edge]).levelName;
+    }
+    
+    public String getEdgeTo(int edge) {
+        return entries.get(edgeTo[edge]).levelName;
+    }
+    
+    /**
+     * Reads one level's difference table (one positional read)
+     *
+     * @return The level, or null if the pack doesn't contain it
+     */
+    public LevelData loadLevel(String levelName) throws IOException {
+        Entry entry = entriesByName.get(levelName);
+        if (entry == null) {
+            return null;
+        }
+        
+        ByteBuffer table = readFully(entry.tableOffset, entry.tableLength);
+        CRC32 crc = new CRC32();
+        crc.update(table.array(), 0, entry.tableLength);
+        if ((int) crc.getValue() != entry.tableCrc) {
+            throw new IOException(packFile + ": damaged difference table for " + levelName);
+        }
+        
+        LevelData level = new LevelData(entry.levelName, entry.image1Path, entry.image2Path, entry.difficulty);
+        try {
+            for (int i = 0; i < entry.differenceCount; i++) {
+                byte kind = table.get();
+                int x = table.getInt();
+                int y = table.getInt();
+                int radius = table.getInt();
+                if (kind == KIND_CIRCLE) {
+                    level.addDifference(x, y, radius);
+                } else if (kind == KIND_MASK) {
+                    int originX = table.getInt();
+                    int originY = table.getInt();
+                    int width = table.getInt();
+                    int height = table.getInt();
+                    int[] runs = new int[table.getInt()];
+                    for (int r = 0; r < runs.length; r++) {
+                        runs[r] = table.getInt();
+                    }
+                    HitMask mask = HitMask.fromRunLengths(originX, originY, width, height, runs);
+                    level.addDifference(new Difference(x, y, radius, mask));
+                } else {
+                    throw new IOException(packFile + ": unknown difference kind " + kind + " in " + levelName);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(packFile + ": damaged difference table for " + levelName, e);
+        }
+        return level;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    /**
+     * Positional read of exactly length bytes (safe to call from several threads)
+     */
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException(packFile + " is truncated");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    private static String readString(ByteBuffer in) {
+        byte[] utf = new byte[in.getShort() & 0xFFFF];
+        in.get(utf);
+        return new String(utf, StandardCharsets.UTF_8);
+    }
+}
@@ -1,11 +1,14 @@
 package com.spotdifference.manager;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Queue;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import com.spotdifference.model.LevelNode;
@@ -14,14 +17,387 @@ import com.spotdifference.model.LevelNode;
  * Function 6: Non-Linear Level Progression Map
  * Uses Graph data structure where each level is a node (vertex) 
  * and pathways between them are edges.
- * Completing a level unlocks access to adjacent levels.
+ * Completing a level unlocks access to adjacent levels, subject to each
+ * level's prerequisite rule: ANY_OF (default, one completed parent is enough),
+ * ALL_OF (every parent), or K_OF_N (at least k parents).
+ * Progress is saved in a ProgressStore and restored when the graph is created.
+ *
+ * Every level gets a dense id (0, 1, 2, ...) when it is added; unlocked and
+ * completed state live in BitSets indexed by that id, with counts kept up to
+ * date on every change. Lookups, set membership and counts are O(1), and
+ * listing the unlocked levels only touches unlocked ones.
+ * Each level also counts its completed parents, so completing a level only
+ * bumps the counters of its children: O(out-degree), no re-scan of the graph.
+ *
+ * Map queries are cached so the selection screen can ask them for every card:
+ * - a topological order, kept valid while new edges agree with it
+ * - per level, the set of levels reachable from it (a BitSet) and its
+ *   breadth-first order, built on first use and patched when edges are added
+ * - per level, how many levels must still be completed to unlock it
+ *   (getLevelsUntil), recomputed in one O(V + E) pass after progress changed
  */
 public class LevelProgressionGraph {
+    /**
+     * How many of a level's parents must be completed to unlock it
+     */
+    public enum Prerequisite {
+        ANY_OF,
+        ALL_OF,
+        K_OF_N
+    }
+    
     private HashMap<String, LevelNode> levelNodes;
+    // Null for graphs that are not saved (e.g. generated for benchmarks)
+    private final ProgressStore progressStore;
+    
+    // Level name -> dense id, and id -> node
+    private final HashMap<String, Integer> levelIds;
+    private final List<LevelNode> nodesById;
+    private final BitSet initiallyUnlocked;
+    private final BitSet unlocked;
+    private final BitSet completed;
+    private int unlockedCount;
+    private int completedCount;
+    private final Set<String> unlockedView;
+    private final Set<String> completedView;
+    
+    // Per level id: child ids, parent count, completed parents and the prerequisite rule
+    private int[][] children;
+    private int[] childCounts;
+    private int[] inDegree;
+    private int[] completedParents;
+    private Prerequisite[] rules;
+    private int[] ruleK;
+    private int[][] parents;
+    
+    // Topological order of the level ids and each id's position in it;
+    // levels on a cycle are left out
+    private int[] topoOrder;
+    private int topoCount;
+    private int[] topoIndex;
+    private boolean topoValid;
+    
+    // Per level id, built on first query: reachable levels and breadth-first order
+    private BitSet[] closures;
+    private final BitSet cachedClosures = new BitSet();
+    private int[][] traversals;
+    private int[] visitStamp;
+    private int epoch;
+    
+    // Per level id: levels to complete before it unlocks / before it is completed
+    private int[] unlockCost;
+    private int[] completeCost;
+    private boolean distancesValid;
+    // Cost of a level that can't be unlocked from the current progress
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
     
     public LevelProgressionGraph() {
+        this(ProgressStore.getInstance());
+    }
+    
+    public LevelProgressionGraph(ProgressStore progressStore) {
+        this(progressStore, null, true);
+    }
+    
+    /**
+     * Graph of the levels and edges in a level pack (the built-in campaign if pack is null)
+     */
+    public LevelProgressionGraph(ProgressStore progressStore, LevelPack pack) {
+        this(progressStore, pack, pack == null);
+    }
+    
+    private LevelProgressionGraph(ProgressStore progressStore, LevelPack pack, boolean withDefaultLevels) {
         this.levelNodes = new HashMap<>();
-        initializeGraph();
+        this.progressStore = progressStore;
+        this.levelIds = new HashMap<>();
+        this.nodesById = new ArrayList<>();
+        this.initiallyUnlocked = new BitSet();
+        this.unlocked = new BitSet();
+        this.completed = new BitSet();
+        this.unlockedView = new LevelSetView(unlocked, true);
+        this.completedView = new LevelSetView(completed, false);
+        this.children = new int[16][];
+        this.childCounts = new int[16];
+        this.inDegree = new int[16];
+        this.completedParents = new int[16];
+        this.rules = new Prerequisite[16];
+        this.ruleK = new int[16];
+        this.parents = new int[16][];
+        this.topoOrder = new int[16];
+        this.topoIndex = new int[16];
+        this.topoValid = true;
+        this.closures = new BitSet[16];
+        this.traversals = new int[16][];
+        this.visitStamp = new int[16];
+        this.unlockCost = new int[16];
+        this.completeCost = new int[16];
+        if (withDefaultLevels) {
+            initializeGraph();
+        } else if (pack != null) {
+            loadPack(pack);
+        }
+        if (progressStore != null) {
+            restoreProgress();
+        }
+    }
+    
+    /**
+     * A graph with no levels whose progress is not saved; levels and
+     * connections are added with addLevel() and addConnection()
+     */
+    public static LevelProgressionGraph createEmpty() {
+        return new LevelProgressionGraph(null, null, false);
+    }
+    
+    /**
+     * The built-in campaign with no progress, not saved (e.g. for exporting it)
+     */
+    public static LevelProgressionGraph createDefault() {
+        return new LevelProgressionGraph(null, null, true);
+    }
+    
+    /**
+     * Re-applies saved unlocks and completions on top of the initial graph
+     */
+    private void restoreProgress() {
+        List<String> levelNames = new ArrayList<>(nodesById.size());
+        for (LevelNode node : nodesById) {
+            levelNames.add(node.getLevelName());
+        }
+        progressStore.registerLevels(levelNames);
+        
+        for (int id = 0; id < nodesById.size(); id++) {
+            String levelName = nodesById.get(id).getLevelName();
+            if (progressStore.isCompleted(levelName)) {
+                setUnlocked(id);
+                setCompleted(id);
+            } else if (progressStore.isUnlocked(levelName)) {
+                setUnlocked(id);
+            }
+        }
+    }
+    
+    /**
+     * Adds a level under the next dense id (does nothing if it already exists)
+     *
+     * @param unlockedAtStart true for levels playable before anything is completed
+     */
+    public void addLevel(String levelName, boolean unlockedAtStart) {
+        if (levelIds.containsKey(levelName)) {
+            return;
+        }
+        int id = nodesById.size();
+        ensureCapacity(id + 1);
+        LevelNode node = new LevelNode(levelName, unlockedAtStart);
+        levelNodes.put(levelName, node);
+        levelIds.put(levelName, id);
+        nodesById.add(node);
+        children[id] = new int[2];
+        parents[id] = new int[2];
+        rules[id] = Prerequisite.ANY_OF;
+        if (unlockedAtStart) {
+            initiallyUnlocked.set(id);
+            unlocked.set(id);
+            unlockedCount++;
+        }
+        // A level without edges can go last in the order
+        topoOrder[topoCount] = id;
+        topoIndex[id] = topoCount++;
+        distancesValid = false;
+    }
+    
+    /**
+     * Adds an edge: completing "from" counts towards unlocking "to"
+     */
+    public void addConnection(String from, String to) {
+        Integer fromId = levelIds.get(from);
+        Integer toId = levelIds.get(to);
+        if (fromId == null || toId == null) {
+            throw new IllegalArgumentException("Unknown level in connection " + from + " -> " + to);
+        }
+        int[] row = children[fromId];
+        int count = childCounts[fromId];
+        for (int i = 0; i < count; i++) {
+            if (row[i] == toId) {
+                return; // Already connected
+            }
+        }
+        if (count == row.length) {
+            row = Arrays.copyOf(row, count * 2);
+            children[fromId] = row;
+        }
+        row[count] = toId;
+        childCounts[fromId] = count + 1;
+        if (inDegree[toId] == parents[toId].length) {
+            parents[toId] = Arrays.copyOf(parents[toId], inDegree[toId] * 2);
+        }
+        parents[toId][inDegree[toId]++] = fromId;
+        nodesById.get(fromId).addAdjacentLevel(nodesById.get(toId));
+        
+        if (completed.get(fromId)) {
+            completedParents[toId]++;
+        }
+        checkPrerequisites(toId);
+        onEdgeAdded(fromId, toId);
+    }
+    
+    /**
+     * Patches the cached structures for a new edge instead of dropping all of them
+     */
+    private void onEdgeAdded(int fromId, int toId) {
+        if (topoValid && topoIndex[fromId] >= topoIndex[toId]) {
+            topoValid = false; // Rebuilt on the next query
+        }
+        for (int id = cachedClosures.nextSetBit(0); id >= 0; id = cachedClosures.nextSetBit(id + 1)) {
+            BitSet closure = closures[id];
+            if (!closure.get(fromId)) {
+                continue;
+            }
+            // Everything that reaches "from" now reaches "to" and all it reaches
+            traversals[id] = null;
+            if (!closure.get(toId)) {
+                if (closures[toId] != null) {
+                    closure.or(closures[toId]);
+                } else {
+                    closures[id] = null;
+                    cachedClosures.clear(id);
+                }
+            }
+        }
+        distancesValid = false;
+    }
+    
+    /**
+     * Sets an ANY_OF or ALL_OF rule for a level
+     */
+    public void setPrerequisite(String levelName, Prerequisite rule) {
+        if (rule == Prerequisite.K_OF_N) {
+            throw new IllegalArgumentException("K_OF_N needs a count; use setPrerequisite(levelName, k)");
+        }
+        setRule(levelName, rule, 0);
+    }
+    
+    /**
+     * Requires at least k completed parents (K_OF_N)
+     */
+    public void setPrerequisite(String levelName, int k) {
+        setRule(levelName, Prerequisite.K_OF_N, k);
+    }
+    
+    private void setRule(String levelName, Prerequisite rule, int k) {
+        Integer id = levelIds.get(levelName);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown level " + levelName);
+        }
+        rules[id] = rule;
+        ruleK[id] = k;
+        distancesValid = false;
+        checkPrerequisites(id);
+    }
+    
+    public Prerequisite getPrerequisite(String levelName) {
+        Integer id = levelIds.get(levelName);
+        return (id != null) ? rules[id] : null;
+    }
+    
+    /**
+     * The k of a K_OF_N rule (0 for the other rules)
+     */
+    public int getPrerequisiteCount(String levelName) {
+        Integer id = levelIds.get(levelName);
+        return (id != null) ? ruleK[id] : 0;
+    }
+    
+    /**
+     * How many more parents must be completed before a locked level unlocks
+     * (0 once it is unlocked)
+     */
+    public int getRemainingPrerequisites(String levelName) {
+        Integer id = levelIds.get(levelName);
+        if (id == null || unlocked.get(id)) {
+            return 0;
+        }
+        return Math.max(0, requiredParents(id) - completedParents[id]);
+    }
+    
+    /**
+     * Completed parents needed by a level's rule (never less than 1, so a level
+     * without parents stays locked unless it was unlocked at the start)
+     */
+    private int requiredParents(int id) {
+        switch (rules[id]) {
+            case ALL_OF:
+                return Math.max(1, inDegree[id]);
+            case K_OF_N:
+                return Math.max(1, Math.min(ruleK[id], inDegree[id]));
+            default:
+                return 1;
+        }
+    }
+    
+    /**
+     * Unlocks the level if enough parents are completed
+     *
+     * @return true if this call unlocked it
+     */
+    private boolean checkPrerequisites(int id) {
+        if (!unlocked.get(id) && completedParents[id] >= requiredParents(id)) {
+            setUnlocked(id);
+            return true;
+        }
+        return false;
+    }
+    
+    private void ensureCapacity(int levelCount) {
+        if (levelCount > children.length) {
+            int capacity = Math.max(levelCount, children.length * 2);
+            children = Arrays.copyOf(children, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+            inDegree = Arrays.copyOf(inDegree, capacity);
+            completedParents = Arrays.copyOf(completedParents, capacity);
+            rules = Arrays.copyOf(rules, capacity);
+            ruleK = Arrays.copyOf(ruleK, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            topoOrder = Arrays.copyOf(topoOrder, capacity);
+            topoIndex = Arrays.copyOf(topoIndex, capacity);
+            closures = Arrays.copyOf(closures, capacity);
+            traversals = Arrays.copyOf(traversals, capacity);
+            visitStamp = Arrays.copyOf(visitStamp, capacity);
+            unlockCost = Arrays.copyOf(unlockCost, capacity);
+            completeCost = Arrays.copyOf(completeCost, capacity);
+        }
+    }
+    
+    private void setUnlocked(int id) {
+        if (!unlocked.get(id)) {
+            unlocked.set(id);
+            unlockedCount++;
+            nodesById.get(id).unlock();
+            distancesValid = false;
+        }
+    }
+    
+    /**
+     * Marks the level completed and counts it towards each child's prerequisites.
+     * O(out-degree).
+     */
+    private void setCompleted(int id) {
+        if (completed.get(id)) {
+            return; // Already counted towards its children
+        }
+        completed.set(id);
+        completedCount++;
+        nodesById.get(id).markCompleted();
+        distancesValid = false;
+        
+        int[] row = children[id];
+        for (int i = 0; i < childCounts[id]; i++) {
+            int child = row[i];
+            completedParents[child]++;
+            if (checkPrerequisites(child) && progressStore != null) {
+                progressStore.markUnlocked(nodesById.get(child).getLevelName());
+            }
+        }
     }
     
     /**
@@ -29,45 +405,61 @@ public class LevelProgressionGraph {
      * Creates nodes and establishes edges (connections) between levels.
      */
     private void initializeGraph() {
-        // Create nodes for each level
-        LevelNode beach = new LevelNode("Beach Scene", true); // First level unlocked
-        LevelNode jungle = new LevelNode("Jungle Scene", false);
-        LevelNode city = new LevelNode("City Scene", false);
-        LevelNode space = new LevelNode("Space Scene", false);
-        LevelNode fantasy = new LevelNode("Fantasy Scene", false);
+        // Create nodes for each level (ids follow this order)
+        addLevel("Beach Scene", true); // First level unlocked
+        addLevel("Jungle Scene", false);
+        addLevel("City Scene", false);
+        addLevel("Space Scene", false);
+        addLevel("Fantasy Scene", false);
         
         // Define graph edges (non-linear paths & unlock rules)
         // Beach unlocks Jungle and City
-        beach.addAdjacentLevel(jungle);
-        beach.addAdjacentLevel(city);
+        addConnection("Beach Scene", "Jungle Scene");
+        addConnection("Beach Scene", "City Scene");
         
         // Jungle unlocks Space
-        jungle.addAdjacentLevel(space);
+        addConnection("Jungle Scene", "Space Scene");
         
-        // City unlocks Space
-        city.addAdjacentLevel(space);
+        // City unlocks Space (either one is enough: Space keeps the default ANY_OF rule)
+        addConnection("City Scene", "Space Scene");
         
         // Space unlocks Fantasy
-        space.addAdjacentLevel(fantasy);
-        
-        // Add all nodes to the map
-        levelNodes.put("Beach Scene", beach);
-        levelNodes.put("Jungle Scene", jungle);
-        levelNodes.put("City Scene", city);
-        levelNodes.put("Space Scene", space);
-        levelNodes.put("Fantasy Scene", fantasy);
+        addConnection("Space Scene", "Fantasy Scene");
+    }
+    
+    /**
+     * Adds the levels, unlock rules and edges listed in a level pack's index
+     */
+    private void loadPack(LevelPack pack) {
+        for (LevelPack.Entry entry : pack.getEntries()) {
+            addLevel(entry.getLevelName(), entry.isUnlockedAtStart());
+        }
+        for (int edge = 0; edge < pack.getEdgeCount(); edge++) {
+            addConnection(pack.getEdgeFrom(edge), pack.getEdgeTo(edge));
+        }
+        for (LevelPack.Entry entry : pack.getEntries()) {
+            if (entry.getPrerequisite() == Prerequisite.K_OF_N) {
+                setPrerequisite(entry.getLevelName(), entry.getPrerequisiteK());
+            } else {
+                setPrerequisite(entry.getLevelName(), entry.getPrerequisite());
+            }
+        }
     }
     
     /**
-     * Marks a level as completed and unlocks adjacent levels.
-     * Demonstrates graph traversal and edge relationships.
+     * Marks a level as completed and unlocks adjacent levels whose
+     * prerequisites are now met.
      * 
      * @param levelName The name of the completed level
      */
     public void completeLevel(String levelName) {
-        LevelNode node = levelNodes.get(levelName);
-        if (node != null) {
-            node.markCompleted();
+        Integer id = levelIds.get(levelName);
+        if (id != null && !completed.get(id)) {
+            setCompleted(id);
+            // Journal only the changes; each is a few bytes on disk
+            if (progressStore != null) {
+                progressStore.markCompleted(levelName);
+            }
         }
     }
     
@@ -75,29 +467,57 @@ public class LevelProgressionGraph {
      * Checks if a level is unlocked and playable
      */
     public boolean isLevelUnlocked(String levelName) {
-        LevelNode node = levelNodes.get(levelName);
-        return node != null && node.isUnlocked();
+        Integer id = levelIds.get(levelName);
+        return id != null && unlocked.get(id);
     }
     
     /**
      * Checks if a level has been completed
      */
     public boolean isLevelCompleted(String levelName) {
-        LevelNode node = levelNodes.get(levelName);
-        return node != null && node.isCompleted();
+        Integer id = levelIds.get(levelName);
+        return id != null && completed.get(id);
     }
     
     /**
      * Gets all levels that are unlocked
      */
     public List<String> getUnlockedLevels() {
-        List<String> unlockedLevels = new ArrayList<>();
-        for (LevelNode node : levelNodes.values()) {
-            if (node.isUnlocked()) {
-                unlockedLevels.add(node.getLevelName());
-            }
-        }
-        return unlockedLevels;
+        return new ArrayList<>(unlockedView);
+    }
+    
+    /**
+     * Live, read-only view of the unlocked levels; contains() and size() are O(1)
+     */
+    public Set<String> getUnlockedLevelSet() {
+        return unlockedView;
+    }
+    
+    /**
+     * Live, read-only view of the completed levels; contains() and size() are O(1)
+     */
+    public Set<String> getCompletedLevelSet() {
+        return completedView;
+    }
+    
+    public int getUnlockedCount() {
+        return unlockedCount;
+    }
+    
+    public int getCompletedCount() {
+        return completedCount;
+    }
+    
+    public int getLevelCount() {
+        return nodesById.size();
+    }
+    
+    /**
+     * Dense id of a level (0 .. getLevelCount() - 1), or -1 if unknown
+     */
+    public int getLevelId(String levelName) {
+        Integer id = levelIds.get(levelName);
+        return (id != null) ? id : -1;
     }
     
     /**
@@ -123,46 +543,302 @@ public class LevelProgressionGraph {
     
     /**
      * Performs a breadth-first traversal of the graph from a starting level
-     * Returns levels in the order they can be reached
+     * Returns levels in the order they can be reached (cached per start level)
      */
     public List<String> breadthFirstTraversal(String startLevel) {
-        List<String> result = new ArrayList<>();
-        Queue<LevelNode> queue = new LinkedList<>();
-        Set<String> visited = new HashSet<>();
+        Integer startId = levelIds.get(startLevel);
+        if (startId == null) return new ArrayList<>();
         
-        LevelNode startNode = levelNodes.get(startLevel);
-        if (startNode == null) return result;
+        int[] order = getTraversal(startId);
+        List<String> result = new ArrayList<>(order.length);
+        for (int id : order) {
+            result.add(nodesById.get(id).getLevelName());
+        }
+        return result;
+    }
+    
+    /**
+     * True if "to" can be reached from "from" along the edges (a level reaches itself).
+     * O(1) once the reachable set of "from" is cached.
+     */
+    public boolean isReachable(String from, String to) {
+        Integer fromId = levelIds.get(from);
+        Integer toId = levelIds.get(to);
+        return fromId != null && toId != null && getClosure(fromId).get(toId);
+    }
+    
+    /**
+     * Number of levels reachable from a level, including itself
+     */
+    public int getReachableCount(String levelName) {
+        Integer id = levelIds.get(levelName);
+        return (id != null) ? getClosure(id).cardinality() : 0;
+    }
+    
+    /**
+     * How many levels still have to be completed before this one unlocks:
+     * 0 if it is already unlocked, -1 if it can't be unlocked (unknown level,
+     * or stuck behind a cycle). O(1) after the first call since progress changed.
+     *
+     * Costs are summed per parent, so with ALL_OF / K_OF_N rules a level needed
+     * by several parents is counted once per parent; the count is then an upper bound.
+     */
+    public int getLevelsUntil(String levelName) {
+        Integer id = levelIds.get(levelName);
+        if (id == null) return -1;
+        
+        ensureDistances();
+        return (unlockCost[id] >= UNREACHABLE) ? -1 : unlockCost[id];
+    }
+    
+    /**
+     * A cheapest set of levels to complete to unlock this one, in playable order
+     * (empty if it is already unlocked or can't be unlocked)
+     */
+    public List<String> getUnlockPath(String levelName) {
+        List<String> path = new ArrayList<>();
+        Integer targetId = levelIds.get(levelName);
+        if (targetId == null || unlocked.get(targetId)) return path;
         
-        queue.offer(startNode);
-        visited.add(startLevel);
+        ensureDistances();
+        if (unlockCost[targetId] >= UNREACHABLE) return path;
         
-        while (!queue.isEmpty()) {
-            LevelNode current = queue.poll();
-            result.add(current.getLevelName());
+        // Walk back through the parents each rule picks, then emit them in topological order
+        BitSet needed = new BitSet();
+        int[] stack = new int[nodesById.size()];
+        int top = 0;
+        stack[top++] = targetId;
+        while (top > 0) {
+            int id = stack[--top];
+            if (unlocked.get(id)) continue;
+            for (int parent : cheapestParents(id)) {
+                if (!completed.get(parent) && !needed.get(parent)) {
+                    needed.set(parent);
+                    stack[top++] = parent;
+                }
+            }
+        }
+        // Playable levels on a cycle have no topological position; they can go first
+        for (int id = needed.nextSetBit(0); id >= 0; id = needed.nextSetBit(id + 1)) {
+            if (topoIndex[id] == Integer.MAX_VALUE) {
+                path.add(nodesById.get(id).getLevelName());
+            }
+        }
+        for (int i = 0; i < topoCount; i++) {
+            if (needed.get(topoOrder[i])) {
+                path.add(nodesById.get(topoOrder[i]).getLevelName());
+            }
+        }
+        return path;
+    }
+    
+    /**
+     * Level names in topological order (every level after all of its parents).
+     * Levels on a cycle are left out.
+     */
+    public List<String> getTopologicalOrder() {
+        ensureTopologicalOrder();
+        List<String> order = new ArrayList<>(topoCount);
+        for (int i = 0; i < topoCount; i++) {
+            order.add(nodesById.get(topoOrder[i]).getLevelName());
+        }
+        return Collections.unmodifiableList(order);
+    }
+    
+    /**
+     * Kahn's algorithm over the id arrays. O(V + E), only after an edge broke the old order.
+     */
+    private void ensureTopologicalOrder() {
+        if (topoValid) return;
+        
+        int levelCount = nodesById.size();
+        int[] pending = Arrays.copyOf(inDegree, levelCount);
+        int head = 0;
+        topoCount = 0;
+        for (int id = 0; id < levelCount; id++) {
+            topoIndex[id] = Integer.MAX_VALUE;
+            if (pending[id] == 0) {
+                topoOrder[topoCount++] = id;
+            }
+        }
+        while (head < topoCount) {
+            int id = topoOrder[head];
+            topoIndex[id] = head++;
+            for (int i = 0; i < childCounts[id]; i++) {
+                int child = children[id][i];
+                if (--pending[child] == 0) {
+                    topoOrder[topoCount++] = child;
+                }
+            }
+        }
+        topoValid = true;
+    }
+    
+    /**
+     * Recomputes unlockCost / completeCost for every level in topological order
+     */
+    private void ensureDistances() {
+        if (distancesValid) return;
+        
+        ensureTopologicalOrder();
+        int levelCount = nodesById.size();
+        for (int id = 0; id < levelCount; id++) {
+            unlockCost[id] = unlocked.get(id) ? 0 : UNREACHABLE;
+            completeCost[id] = completed.get(id) ? 0 : Math.min(UNREACHABLE, unlockCost[id] + 1);
+        }
+        int[] costs = new int[4];
+        for (int i = 0; i < topoCount; i++) {
+            int id = topoOrder[i];
+            if (unlocked.get(id)) continue;
             
-            for (LevelNode adjacent : current.getAdjacentLevels()) {
-                if (!visited.contains(adjacent.getLevelName())) {
-                    visited.add(adjacent.getLevelName());
-                    queue.offer(adjacent);
+            int parentCount = inDegree[id];
+            if (costs.length < parentCount) {
+                costs = new int[parentCount * 2];
+            }
+            for (int p = 0; p < parentCount; p++) {
+                costs[p] = completeCost[parents[id][p]];
+            }
+            Arrays.sort(costs, 0, parentCount);
+            // The rule needs this many parents; take the cheapest ones
+            int required = requiredParents(id);
+            long total = (required <= parentCount) ? 0 : UNREACHABLE;
+            for (int p = 0; p < Math.min(required, parentCount); p++) {
+                total += costs[p];
+            }
+            unlockCost[id] = (int) Math.min(UNREACHABLE, total);
+            if (!completed.get(id)) {
+                completeCost[id] = Math.min(UNREACHABLE, unlockCost[id] + 1);
+            }
+        }
+        distancesValid = true;
+    }
+    
+    /**
+     * The parents a locked level's rule would use when unlocking it as cheaply as possible
+     */
+    private int[] cheapestParents(int id) {
+        int[] candidates = Arrays.copyOf(parents[id], inDegree[id]);
+        Integer[] boxed = new Integer[candidates.length];
+        for (int p = 0; p < candidates.length; p++) {
+            boxed[p] = candidates[p];
+        }
+        Arrays.sort(boxed, (a, b) -> Integer.compare(completeCost[a], completeCost[b]));
+        int[] chosen = new int[Math.min(requiredParents(id), boxed.length)];
+        for (int p = 0; p < chosen.length; p++) {
+            chosen[p] = boxed[p];
+        }
+        return chosen;
+    }
+    
+    private BitSet getClosure(int startId) {
+        if (closures[startId] == null) {
+            getTraversal(startId);
+        }
+        return closures[startId];
+    }
+    
+    /**
+     * Breadth-first order from a level, computed once and cached together with
+     * the reachable set. Uses an epoch-stamped visited array, so nothing needs clearing.
+     */
+    private int[] getTraversal(int startId) {
+        if (traversals[startId] != null) {
+            return traversals[startId];
+        }
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamp, 0);
+            epoch = 0;
+        }
+        int stamp = ++epoch;
+        int[] queue = new int[nodesById.size()];
+        int head = 0;
+        int tail = 0;
+        BitSet closure = new BitSet(nodesById.size());
+        queue[tail++] = startId;
+        visitStamp[startId] = stamp;
+        closure.set(startId);
+        
+        while (head < tail) {
+            int current = queue[head++];
+            for (int i = 0; i < childCounts[current]; i++) {
+                int adjacent = children[current][i];
+                if (visitStamp[adjacent] != stamp) {
+                    visitStamp[adjacent] = stamp;
+                    closure.set(adjacent);
+                    queue[tail++] = adjacent;
                 }
             }
         }
         
-        return result;
+        traversals[startId] = Arrays.copyOf(queue, tail);
+        closures[startId] = closure;
+        cachedClosures.set(startId);
+        return traversals[startId];
     }
     
     /**
      * Resets the graph to initial state (only first level unlocked)
      */
     public void reset() {
-        for (LevelNode node : levelNodes.values()) {
-            if (!node.getLevelName().equals("Beach Scene")) {
-                // Reset all except the first level
-                levelNodes.put(node.getLevelName(), 
-                    new LevelNode(node.getLevelName(), false));
-            }
+        unlocked.clear();
+        unlocked.or(initiallyUnlocked);
+        completed.clear();
+        unlockedCount = initiallyUnlocked.cardinality();
+        completedCount = 0;
+        Arrays.fill(completedParents, 0);
+        distancesValid = false;
+        for (int id = 0; id < nodesById.size(); id++) {
+            nodesById.get(id).resetProgress(initiallyUnlocked.get(id));
+        }
+        if (progressStore != null) {
+            progressStore.reset();
+        }
+    }
+    
+    /**
+     * Read-only Set of level names backed by one of the state BitSets
+     */
+    private class LevelSetView extends AbstractSet<String> {
+        private final BitSet bits;
+        private final boolean countsUnlocked;
+        
+        LevelSetView(BitSet bits, boolean countsUnlocked) {
+            this.bits = bits;
+            this.countsUnlocked = countsUnlocked;
+        }
+        
+        @Override
+        public boolean contains(Object o) {
+            Integer id = levelIds.get(o);
+            return id != null && bits.get(id);
+        }
+        
+        @Override
+        public int size() {
+            return countsUnlocked ? unlockedCount : completedCount;
+        }
+        
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = bits.nextSetBit(0);
+                
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+                
+                @Override
+                public String next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    String levelName = nodesById.get(next).getLevelName();
+                    next = bits.nextSetBit(next + 1);
+                    return levelName;
+                }
+            };
         }
-        initializeGraph();
     }
 }
 
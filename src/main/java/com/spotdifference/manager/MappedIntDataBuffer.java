@@ -0,0 +1,30 @@
+package com.spotdifference.manager;
+
+import java.awt.image.DataBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * DataBuffer over an IntBuffer, used to wrap a memory-mapped raster file as
+ * image pixels without copying them onto the heap.
+ * The buffer comes from a read-only mapping, so the image can be drawn from
+ * but not drawn into: setElem throws UnsupportedOperationException.
+ */
+class MappedIntDataBuffer extends DataBuffer {
+    private final IntBuffer pixels;
+    
+    MappedIntDataBuffer(IntBuffer pixels, int size) {
+        super(TYPE_INT, size);
+        this.pixels = pixels;
+    }
+    
+    @Override
+    public int getElem(int bank, int i) {
+        return pixels.get(i);
+    }
+    
+    @Override
+    public void setElem(int bank, int i, int val) {
+        throw new UnsupportedOperationException(
+            "Image is backed by a read-only mapped raster file; draw a copy of it instead");
+    }
+}
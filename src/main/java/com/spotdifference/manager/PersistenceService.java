@@ -0,0 +1,215 @@
+package com.spotdifference.manager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Write-behind persistence shared by everything that saves to disk.
+ * Callers hand over a write task and return immediately; a single background
+ * writer runs the tasks in submission order, so the EDT never waits on disk
+ * (which can take a long time on network-mounted home directories).
+ *
+ * Tasks are keyed: submitting a task for a key that is still queued replaces
+ * the queued one, so a burst of saves for the same file costs one write.
+ * The writer waits for a short quiet period to collect a burst, but never holds
+ * a task longer than the flush deadline. Pending tasks are flushed by a
+ * shutdown hook when the JVM exits.
+ */
+public class PersistenceService {
+    // Wait this long after the last submit before writing, to coalesce bursts
+    private static final long QUIET_PERIOD_NANOS = 100_000_000L;
+    // ...but never hold a task longer than this
+    private static final long FLUSH_DEADLINE_NANOS = 1_000_000_000L;
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_MS = 5000;
+    
+    private static final PersistenceService INSTANCE = new PersistenceService();
+    
+    private final Object lock = new Object();
+    // Key -> latest task for that key, in first-submission order
+    private final LinkedHashMap<String, Runnable> pending;
+    private long firstPendingTime;
+    private long lastSubmitTime;
+    private boolean writing;
+    private boolean flushRequested;
+    
+    private long flushCount;
+    private long tasksWritten;
+    private long tasksCoalesced;
+    private long lastFlushLatencyNanos;
+    private long maxFlushLatencyNanos;
+    
+    private PersistenceService() {
+        this.pending = new LinkedHashMap<>();
+        Thread writer = new Thread(this::runWriter, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(
+            () -> flush(SHUTDOWN_FLUSH_TIMEOUT_MS), "persistence-shutdown-flush"));
+    }
+    
+    public static PersistenceService getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Queues a write. Never blocks on I/O.
+     *
+     * @param key Identifies what is written (e.g. a file name); a queued task
+     *            with the same key is replaced by this one
+     * @param task The write itself; runs on the writer thread
+     */
+    public void submit(String key, Runnable task) {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            if (pending.isEmpty()) {
+                firstPendingTime = now;
+            }
+            lastSubmitTime = now;
+            if (pending.put(key, task) != null) {
+                tasksCoalesced++;
+            }
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Writes everything queued right away and waits until it is on disk
+     *
+     * @return false if the writes did not finish within the timeout
+     */
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        synchronized (lock) {
+            flushRequested = true;
+            lock.notifyAll();
+            try {
+                while (!pending.isEmpty() || writing) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    lock.wait(Math.max(1, remaining / 1_000_000L));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return true;
+        }
+    }
+    
+    private void runWriter() {
+        while (true) {
+            List<Runnable> batch;
+            long batchStartTime;
+            try {
+                synchronized (lock) {
+                    while (!isBatchDue()) {
+                        lock.wait(nextWakeupMillis());
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    batchStartTime = firstPendingTime;
+                    pending.clear();
+                    flushRequested = false;
+                    writing = true;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            
+            for (Runnable task : batch) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Error in background save: " + e.getMessage());
+                }
+            }
+            
+            synchronized (lock) {
+                writing = false;
+                long latency = System.nanoTime() - batchStartTime;
+                lastFlushLatencyNanos = latency;
+                maxFlushLatencyNanos = Math.max(maxFlushLatencyNanos, latency);
+                flushCount++;
+                tasksWritten += batch.size();
+                lock.notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * True when queued tasks should be written now. Caller holds the lock.
+     */
+    private boolean isBatchDue() {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        return flushRequested
+            || now - lastSubmitTime >= QUIET_PERIOD_NANOS
+            || now - firstPendingTime >= FLUSH_DEADLINE_NANOS;
+    }
+    
+    /**
+     * How long the writer may sleep before the next batch can become due (0 = until notified)
+     */
+    private long nextWakeupMillis() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long untilQuiet = lastSubmitTime + QUIET_PERIOD_NANOS - now;
+        long untilDeadline = firstPendingTime + FLUSH_DEADLINE_NANOS - now;
+        return Math.max(1, Math.min(untilQuiet, untilDeadline) / 1_000_000L);
+    }
+    
+    /**
+     * Number of writes waiting for the writer thread
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+    
+    /**
+     * Time from the first queued task of the last batch until that batch was written
+     */
+    public double getLastFlushLatencyMillis() {
+        synchronized (lock) {
+            return lastFlushLatencyNanos / 1e6;
+        }
+    }
+    
+    public double getMaxFlushLatencyMillis() {
+        synchronized (lock) {
+            return maxFlushLatencyNanos / 1e6;
+        }
+    }
+    
+    public long getFlushCount() {
+        synchronized (lock) {
+            return flushCount;
+        }
+    }
+    
+    /**
+     * Tasks replaced by a newer task for the same key before they were written
+     */
+    public long getCoalescedCount() {
+        synchronized (lock) {
+            return tasksCoalesced;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "PersistenceService{queued=" + pending.size() + ", flushes=" + flushCount
+                + ", written=" + tasksWritten + ", coalesced=" + tasksCoalesced
+                + String.format(", lastLatency=%.1fms, maxLatency=%.1fms}",
+                    lastFlushLatencyNanos / 1e6, maxFlushLatencyNanos / 1e6);
+        }
+    }
+}
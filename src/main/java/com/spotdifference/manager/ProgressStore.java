@@ -0,0 +1,447 @@
+package com.spotdifference.manager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Saved level progress of one player profile.
+ * Every level name is mapped to a bit position; unlocked and completed levels
+ * are two bitsets over those positions.
+ *
+ * On disk the state is a snapshot plus a journal:
+ *   progress-&lt;profile&gt;.dat      generation, names in bit order and both bitsets, CRC-checked
+ *   progress-&lt;profile&gt;.journal  header (magic, generation), then fixed 9-byte
+ *                                records (op, bit, CRC32)
+ * Completing a level appends a few journal records, so a save stays a tiny
+ * write no matter how many levels exist. When the journal grows large it is
+ * folded into a new snapshot with the next generation number, written to a
+ * temp file and atomically moved into place. A journal only applies to the
+ * snapshot of its own generation, so one left behind by a crash right after
+ * the move (whose resets or completions are already folded in) is ignored.
+ * A torn or damaged journal tail is cut off on load, so later appends stay
+ * readable. Appends are forced to disk. All writes run on the PersistenceService
+ * writer.
+ *
+ * Graphs register all their levels up front (registerLevels), so the name
+ * table is written once rather than in a new snapshot per newly saved level.
+ *
+ * The profile is chosen with -Dspotdifference.profile=&lt;name&gt; (default "default").
+ */
+public class ProgressStore {
+    private static final int MAGIC = 0x53445047; // "SDPG"
+    private static final int JOURNAL_MAGIC = 0x5344504A; // "SDPJ"
+    private static final int VERSION = 1;
+    private static final int JOURNAL_HEADER_SIZE = 4 + 8;
+    
+    private static final byte OP_UNLOCK = 1;
+    private static final byte OP_COMPLETE = 2;
+    private static final byte OP_RESET = 3;
+    private static final int RECORD_SIZE = 1 + 4 + 4;
+    // Fold the journal into the snapshot after this many records
+    private static final int COMPACT_THRESHOLD = 1024;
+    
+    private static final ProgressStore INSTANCE = new ProgressStore(
+        System.getProperty("spotdifference.profile", "default"));
+    
+    private final String profile;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    
+    // Bit position -> level name, and back
+    private final List<String> levelNames;
+    private final Map<String, Integer> levelIds;
+    private final BitSet unlocked;
+    private final BitSet completed;
+    
+    // Journal records waiting for the persistence writer
+    private final Queue<byte[]> pendingRecords;
+    // The writer should write a new snapshot before any pending records
+    private boolean snapshotRequested;
+    private final String writeKey;
+    private int journalRecords;
+    // A level was added, so the name table on disk is out of date
+    private boolean snapshotStale;
+    // Generation of the current snapshot; journal records are tagged with it
+    private long generation;
+    // Generation of the journal file on disk, -1 if there is none (writer thread only)
+    private long journalGeneration = -1;
+    
+    public ProgressStore(String profile) {
+        this.profile = profile;
+        this.snapshotFile = Paths.get("progress-" + profile + ".dat");
+        this.journalFile = Paths.get("progress-" + profile + ".journal");
+        this.levelNames = new ArrayList<>();
+        this.levelIds = new HashMap<>();
+        this.unlocked = new BitSet();
+        this.completed = new BitSet();
+        this.pendingRecords = new ConcurrentLinkedQueue<>();
+        this.writeKey = "progress-" + profile;
+        load();
+    }
+    
+    /**
+     * Store for the profile selected on the command line
+     */
+    public static ProgressStore getInstance() {
+        return INSTANCE;
+    }
+    
+    public String getProfile() {
+        return profile;
+    }
+    
+    /**
+     * Assigns bit positions to all levels a graph may save at once, so the name
+     * table is written in one snapshot instead of once per newly saved level
+     */
+    public synchronized void registerLevels(Collection<String> levelNames) {
+        for (String levelName : levelNames) {
+            getLevelId(levelName);
+        }
+    }
+    
+    /**
+     * Bit position of a level, assigning the next free one to a new level
+     */
+    public synchronized int getLevelId(String levelName) {
+        Integer id = levelIds.get(levelName);
+        if (id == null) {
+            id = levelNames.size();
+            levelNames.add(levelName);
+            levelIds.put(levelName, id);
+            // Ids must be on disk before any journal record refers to them
+            snapshotStale = true;
+        }
+        return id;
+    }
+    
+    public synchronized boolean isUnlocked(String levelName) {
+        Integer id = levelIds.get(levelName);
+        return id != null && unlocked.get(id);
+    }
+    
+    public synchronized boolean isCompleted(String levelName) {
+        Integer id = levelIds.get(levelName);
+        return id != null && completed.get(id);
+    }
+    
+    public synchronized void markUnlocked(String levelName) {
+        int id = getLevelId(levelName);
+        if (!unlocked.get(id)) {
+            unlocked.set(id);
+            queueRecord(OP_UNLOCK, id);
+        }
+    }
+    
+    public synchronized void markCompleted(String levelName) {
+        int id = getLevelId(levelName);
+        if (!completed.get(id)) {
+            completed.set(id);
+            queueRecord(OP_COMPLETE, id);
+        }
+    }
+    
+    /**
+     * Forgets all progress of this profile
+     */
+    public synchronized void reset() {
+        unlocked.clear();
+        completed.clear();
+        queueRecord(OP_RESET, 0);
+    }
+    
+    /**
+     * Names of all levels the store knows about, in bit order
+     */
+    public synchronized List<String> getLevelNames() {
+        return new ArrayList<>(levelNames);
+    }
+    
+    /**
+     * Copies of the unlocked / completed bitsets, indexed by level id
+     */
+    public synchronized BitSet getUnlockedBits() {
+        return (BitSet) unlocked.clone();
+    }
+    
+    public synchronized BitSet getCompletedBits() {
+        return (BitSet) completed.clone();
+    }
+    
+    private void queueRecord(byte op, int bit) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(op).putInt(bit);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, RECORD_SIZE - 4);
+        record.putInt((int) crc.getValue());
+        pendingRecords.add(record.array());
+        journalRecords++;
+        
+        if (snapshotStale || journalRecords > COMPACT_THRESHOLD) {
+            // Encoded by the writer, so a burst of new levels costs one snapshot
+            snapshotRequested = true;
+        }
+        PersistenceService.getInstance().submit(writeKey, this::flushToDisk);
+    }
+    
+    /**
+     * Runs on the persistence writer thread: the pending snapshot (if any)
+     * first, then the journal records queued after it
+     */
+    private void flushToDisk() {
+        byte[] snapshot = null;
+        long recordGeneration;
+        synchronized (this) {
+            if (snapshotRequested) {
+                generation++;
+                snapshot = encodeSnapshot();
+                // The snapshot already contains everything queued so far
+                pendingRecords.clear();
+                journalRecords = 0;
+                snapshotStale = false;
+                snapshotRequested = false;
+            }
+            recordGeneration = generation;
+        }
+        if (snapshot != null && !writeSnapshot(snapshot)) {
+            // The old snapshot and journal are still in place; records queued since then are
+            // part of the next snapshot, which the next save retries
+            synchronized (this) {
+                snapshotRequested = true;
+            }
+            return;
+        }
+        drainPendingRecords(recordGeneration);
+    }
+    
+    private void drainPendingRecords(long recordGeneration) {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        byte[] record;
+        while ((record = pendingRecords.poll()) != null) {
+            batch.write(record, 0, record.length);
+        }
+        if (batch.size() == 0) {
+            return;
+        }
+        // A missing journal, or one from an older generation, is started over with a header
+        boolean newJournal = journalGeneration != recordGeneration;
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, newJournal ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND)) {
+            if (newJournal) {
+                ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_SIZE);
+                header.putInt(JOURNAL_MAGIC).putLong(recordGeneration).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            journalGeneration = recordGeneration;
+        } catch (IOException e) {
+            journalGeneration = -1;
+            System.err.println("Error saving progress: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * The snapshot replaces the journal, which is removed only after the new
+     * snapshot is safely in place (until then its generation no longer matches)
+     *
+     * @return false if the snapshot could not be written
+     */
+    private boolean writeSnapshot(byte[] snapshot) {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving progress: " + e.getMessage());
+            return false;
+        }
+        try {
+            // Everything in the journal is part of the new snapshot
+            Files.deleteIfExists(journalFile);
+            journalGeneration = -1;
+        } catch (IOException e) {
+            // Harmless: a journal of an older generation is never replayed, and is truncated by the next append
+            journalGeneration = -1;
+        }
+        return true;
+    }
+    
+    /**
+     * Snapshot layout: magic, version, generation (long), level count, names (length + UTF-8), unlocked words,
+     * completed words, CRC32 of everything before it. Caller holds the lock.
+     */
+    private byte[] encodeSnapshot() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(levelNames.size());
+            for (String name : levelNames) {
+                byte[] utf = name.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(utf.length);
+                out.write(utf);
+            }
+            writeBits(out, unlocked);
+            writeBits(out, completed);
+            out.flush();
+            
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // In-memory stream
+        }
+    }
+    
+    private static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+        long[] words = bits.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+    
+    private static BitSet readBits(ByteBuffer in) {
+        long[] words = new long[in.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.getLong();
+        }
+        return BitSet.valueOf(words);
+    }
+    
+    private void load() {
+        try {
+            if (Files.exists(snapshotFile)) {
+                readSnapshot(ByteBuffer.wrap(Files.readAllBytes(snapshotFile)));
+            }
+            if (Files.exists(journalFile)) {
+                int validLength = replayJournal(ByteBuffer.wrap(Files.readAllBytes(journalFile)));
+                if (validLength >= 0 && validLength < Files.size(journalFile)) {
+                    truncateJournal(validLength);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading progress for profile " + profile + ": " + e.getMessage());
+            levelNames.clear();
+            levelIds.clear();
+            unlocked.clear();
+            completed.clear();
+            generation = 0;
+            journalGeneration = -1;
+        }
+    }
+    
+    /**
+     * Cuts off a damaged journal tail, so later appends aren't hidden behind it.
+     * If that fails, the next save writes a snapshot and starts a new journal.
+     */
+    private void truncateJournal(int validLength) {
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(validLength);
+            channel.force(true);
+        } catch (IOException e) {
+            System.err.println("Error repairing progress journal: " + e.getMessage());
+            snapshotStale = true;
+            journalGeneration = -1;
+        }
+    }
+    
+    private void readSnapshot(ByteBuffer in) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(in.array(), 0, in.capacity() - 4);
+        if (in.capacity() < 16 || (int) crc.getValue() != in.getInt(in.capacity() - 4)) {
+            throw new IOException("progress snapshot is damaged");
+        }
+        if (in.getInt() != MAGIC) {
+            throw new IOException("unknown progress file format");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("unknown progress file version " + version);
+        }
+        generation = in.getLong();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] utf = new byte[in.getShort() & 0xFFFF];
+            in.get(utf);
+            String name = new String(utf, StandardCharsets.UTF_8);
+            levelIds.put(name, levelNames.size());
+            levelNames.add(name);
+        }
+        unlocked.or(readBits(in));
+        completed.or(readBits(in));
+    }
+    
+    /**
+     * Applies journal records up to the first damaged one (a torn last write).
+     * A journal without a valid header, or of another generation than the
+     * snapshot, is stale: it is skipped and replaced by the next append.
+     *
+     * @return Length of the valid part of the journal, or -1 if it is stale
+     */
+    private int replayJournal(ByteBuffer in) {
+        if (in.remaining() < JOURNAL_HEADER_SIZE || in.getInt(0) != JOURNAL_MAGIC
+                || in.getLong(4) != generation) {
+            return -1;
+        }
+        in.position(JOURNAL_HEADER_SIZE);
+        journalGeneration = generation;
+        int validLength = JOURNAL_HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (in.remaining() >= RECORD_SIZE) {
+            int start = in.position();
+            crc.reset();
+            crc.update(in.array(), start, RECORD_SIZE - 4);
+            byte op = in.get();
+            int bit = in.getInt();
+            if ((int) crc.getValue() != in.getInt() || bit < 0 || bit >= levelNames.size()) {
+                break;
+            }
+            if (op == OP_UNLOCK) {
+                unlocked.set(bit);
+            } else if (op == OP_COMPLETE) {
+                completed.set(bit);
+            } else if (op == OP_RESET) {
+                unlocked.clear();
+                completed.clear();
+            }
+            journalRecords++;
+            validLength = in.position();
+        }
+        return validLength;
+    }
+}
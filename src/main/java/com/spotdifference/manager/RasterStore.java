@@ -0,0 +1,195 @@
+package com.spotdifference.manager;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * On-disk cache of decoded images as raw ARGB rasters, one file per image.
+ * The first decode of an image writes its pixels here; later loads map the
+ * file with FileChannel.map and wrap the mapping as the image's DataBuffer,
+ * so no PNG is decoded again and the pixels never get copied onto the heap.
+ * The OS page cache shares the mapped pages between loads.
+ *
+ * FILE LAYOUT (one file per image, named after its resource path):
+ *   magic "SDRS" (int), version (int), width (int), height (int),
+ *   flags (int: bit 0 = has alpha, bit 1 = little-endian pixels), reserved (int),
+ *   source stamp (long), then width * height pixels as 32-bit ARGB ints
+ * The source stamp identifies the PNG the raster came from (size and
+ * modification time); a raster whose stamp doesn't match is decoded again.
+ *
+ * The directory is ~/.spotdifference/rasters, or -Dspotdifference.rasterDir=&lt;dir&gt;.
+ */
+public class RasterStore {
+    private static final int MAGIC = 0x53445253; // "SDRS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int FLAG_ALPHA = 1;
+    private static final int FLAG_LITTLE_ENDIAN = 2;
+    // Rows written per channel write when storing
+    private static final int ROWS_PER_WRITE = 32;
+    
+    private static final RasterStore INSTANCE = new RasterStore(Paths.get(System.getProperty(
+        "spotdifference.rasterDir", Paths.get(System.getProperty("user.home"), ".spotdifference", "rasters").toString())));
+    
+    private final Path directory;
+    
+    public RasterStore(Path directory) {
+        this.directory = directory;
+    }
+    
+    public static RasterStore getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Maps the cached raster of an image
+     *
+     * @param sourceStamp Stamp of the current source image (see class doc)
+     * @return The image backed by the mapped file, or null if it isn't cached
+     *         (or the cached copy is stale or damaged). The image is read-only:
+     *         writing a pixel throws UnsupportedOperationException
+     */
+    public BufferedImage load(String imagePath, long sourceStamp) {
+        Path file = fileFor(imagePath);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return null;
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                return null;
+            }
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            int flags = mapped.getInt();
+            mapped.getInt(); // Reserved
+            long stamp = mapped.getLong();
+            if (stamp != sourceStamp || width <= 0 || height <= 0
+                    || size != HEADER_SIZE + 4L * width * height) {
+                return null;
+            }
+            
+            ByteBuffer pixelBytes = mapped.slice().order(
+                (flags & FLAG_LITTLE_ENDIAN) != 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            return wrap(pixelBytes.asIntBuffer(), width, height, (flags & FLAG_ALPHA) != 0);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading cached raster for " + imagePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Writes an image's pixels to the cache (temp file, then atomic move).
+     * Slow compared to load(); call it from a background thread.
+     */
+    public void store(String imagePath, long sourceStamp, BufferedImage image) {
+        Path file = fileFor(imagePath);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean alpha = image.getColorModel().hasAlpha();
+        ByteOrder order = ByteOrder.nativeOrder();
+        
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height)
+                    .putInt((alpha ? FLAG_ALPHA : 0) | (order == ByteOrder.LITTLE_ENDIAN ? FLAG_LITTLE_ENDIAN : 0))
+                    .putInt(0).putLong(sourceStamp).flip();
+                writeFully(channel, header);
+                
+                ByteBuffer rows = ByteBuffer.allocate(4 * width * Math.min(ROWS_PER_WRITE, height)).order(order);
+                int[] argb = new int[width * Math.min(ROWS_PER_WRITE, height)];
+                for (int y = 0; y < height; y += ROWS_PER_WRITE) {
+                    int rowCount = Math.min(ROWS_PER_WRITE, height - y);
+                    image.getRGB(0, y, width, rowCount, argb, 0, width);
+                    rows.clear();
+                    rows.asIntBuffer().put(argb, 0, width * rowCount);
+                    rows.limit(4 * width * rowCount);
+                    writeFully(channel, rows);
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error caching raster for " + imagePath + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+                // Nothing more to clean up
+            }
+        }
+    }
+    
+    /**
+     * Deletes the cached raster of an image, if any
+     */
+    public void remove(String imagePath) {
+        try {
+            Files.deleteIfExists(fileFor(imagePath));
+        } catch (IOException e) {
+            System.err.println("Error removing cached raster for " + imagePath + ": " + e.getMessage());
+        }
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * True if the image's pixels live in a mapped file rather than on the heap
+     */
+    public static boolean isMapped(BufferedImage image) {
+        return image.getRaster().getDataBuffer() instanceof MappedIntDataBuffer;
+    }
+    
+    /**
+     * Builds an INT_ARGB / INT_RGB layout image over the pixels, without copying them
+     */
+    private static BufferedImage wrap(IntBuffer pixels, int width, int height, boolean alpha) {
+        DirectColorModel colorModel = alpha
+            ? new DirectColorModel(32, 0x00FF0000, 0x0000FF00, 0x000000FF, 0xFF000000)
+            : new DirectColorModel(24, 0x00FF0000, 0x0000FF00, 0x000000FF, 0);
+        DataBuffer dataBuffer = new MappedIntDataBuffer(pixels, width * height);
+        SinglePixelPackedSampleModel sampleModel = new SinglePixelPackedSampleModel(
+            DataBuffer.TYPE_INT, width, height, colorModel.getMasks());
+        WritableRaster raster = Raster.createWritableRaster(sampleModel, dataBuffer, null);
+        return new BufferedImage(colorModel, raster, false, null);
+    }
+    
+    /**
+     * One file per resource path: the path made filename-safe plus its hash
+     * (so "a/b.png" and "a_b.png" don't collide)
+     */
+    private Path fileFor(String imagePath) {
+        String safeName = imagePath.replaceAll("[^A-Za-z0-9._-]", "_");
+        return directory.resolve(safeName + "-" + Integer.toHexString(imagePath.hashCode()) + ".argb");
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.spotdifference.manager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps the recording (see logic.SessionRecorder) of the last completed game of
+ * every level, one file per level. Saves run on the PersistenceService writer.
+ *
+ * The directory is ~/.spotdifference/replays, or -Dspotdifference.replayDir=&lt;dir&gt;.
+ */
+public class ReplayStore {
+    private static final ReplayStore INSTANCE = new ReplayStore(Paths.get(System.getProperty(
+        "spotdifference.replayDir", Paths.get(System.getProperty("user.home"), ".spotdifference", "replays").toString())));
+    
+    private final Path directory;
+    
+    public ReplayStore(Path directory) {
+        this.directory = directory;
+    }
+    
+    public static ReplayStore getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Queues the recording as the last game of a level, replacing the previous one
+     */
+    public void save(String levelName, byte[] recording) {
+        Path file = fileFor(levelName);
+        PersistenceService.getInstance().submit("replay-" + levelName, () -> {
+            try {
+                Files.createDirectories(directory);
+                Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.write(tempFile, recording);
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Error saving replay of " + levelName + ": " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * The last recorded game of a level, or null if there is none
+     */
+    public byte[] load(String levelName) {
+        Path file = fileFor(levelName);
+        try {
+            return Files.exists(file) ? Files.readAllBytes(file) : null;
+        } catch (IOException e) {
+            System.err.println("Error loading replay of " + levelName + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private Path fileFor(String levelName) {
+        return directory.resolve(levelName.replaceAll("[^A-Za-z0-9_-]", "_") + ".sdr");
+    }
+}
@@ -0,0 +1,268 @@
+package com.spotdifference.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.spotdifference.model.PlayerScore;
+
+/**
+ * Append-only binary log of high-score records.
+ * Every record is one fixed-width frame ending in a CRC32 of its contents, so
+ * submitting a score is a single small sequential write. On startup the frames
+ * are replayed; a torn or corrupt tail (e.g. after a crash mid-write) is cut off
+ * at the last good frame.
+ *
+ * FILE LAYOUT:
+ *   header: magic "SDHS" (int), version (int)
+ *   frames: type (byte), player name (64), level name (64), score (int),
+ *           timestamp in epoch millis (long), CRC32 of the preceding bytes (int)
+ * Names are UTF-8 in a fixed 64-byte field: one length byte and up to 63 bytes.
+ *
+ * Superseded records are dropped by compaction, which writes the retained
+ * scores to a temp file and atomically replaces the log.
+ */
+public class ScoreLog {
+    private static final int MAGIC = 0x53444853; // "SDHS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    
+    private static final byte TYPE_SCORE = 1;
+    private static final byte TYPE_CLEAR = 2;
+    
+    private static final int NAME_FIELD_SIZE = 64;
+    private static final int FRAME_SIZE = 1 + NAME_FIELD_SIZE * 2 + 4 + 8 + 4;
+    
+    private final Path logFile;
+    private FileChannel channel;
+    private final ByteBuffer frameBuffer;
+    private final CRC32 crc;
+    private int frameCount;
+    
+    public ScoreLog(Path logFile) {
+        this.logFile = logFile;
+        this.frameBuffer = ByteBuffer.allocate(FRAME_SIZE);
+        this.crc = new CRC32();
+    }
+    
+    public boolean exists() {
+        return Files.exists(logFile);
+    }
+    
+    /**
+     * Opens the log and replays it. Records before the last "clear" are skipped.
+     * A damaged tail is truncated; a file with a bad header is moved aside.
+     *
+     * @return The scores in the order they were appended
+     */
+    public synchronized List<PlayerScore> recover() throws IOException {
+        List<PlayerScore> scores = new ArrayList<>();
+        frameCount = 0;
+        
+        if (Files.exists(logFile)) {
+            ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(logFile));
+            if (contents.remaining() < HEADER_SIZE || contents.getInt() != MAGIC || contents.getInt() != VERSION) {
+                Path corrupt = logFile.resolveSibling(logFile.getFileName() + ".corrupt");
+                System.err.println("High score log has an unknown format, moved to " + corrupt);
+                Files.move(logFile, corrupt, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                while (contents.remaining() >= FRAME_SIZE) {
+                    int frameStart = contents.position();
+                    crc.reset();
+                    crc.update(contents.array(), frameStart, FRAME_SIZE - 4);
+                    contents.position(frameStart + FRAME_SIZE - 4);
+                    if ((int) crc.getValue() != contents.getInt()) {
+                        contents.position(frameStart);
+                        break;
+                    }
+                    
+                    contents.position(frameStart);
+                    byte type = contents.get();
+                    if (type == TYPE_CLEAR) {
+                        scores.clear();
+                        contents.position(frameStart + FRAME_SIZE);
+                    } else {
+                        scores.add(readScore(contents));
+                    }
+                    frameCount++;
+                }
+                
+                long validLength = contents.position();
+                if (validLength < contents.capacity()) {
+                    System.err.println("High score log: dropped " + (contents.capacity() - validLength)
+                        + " damaged bytes at the end");
+                }
+                openChannel();
+                channel.truncate(validLength);
+                channel.position(validLength);
+                return scores;
+            }
+        }
+        
+        openChannel();
+        writeHeader(channel);
+        return scores;
+    }
+    
+    /**
+     * Appends one score frame
+     */
+    public synchronized void append(PlayerScore score) throws IOException {
+        frameBuffer.clear();
+        frameBuffer.put(TYPE_SCORE);
+        putScore(frameBuffer, score);
+        writeFrame(channel);
+    }
+    
+    /**
+     * Appends a frame that discards every earlier score on replay
+     */
+    public synchronized void appendClear() throws IOException {
+        frameBuffer.clear();
+        frameBuffer.put(TYPE_CLEAR);
+        while (frameBuffer.position() < FRAME_SIZE - 4) {
+            frameBuffer.put((byte) 0);
+        }
+        writeFrame(channel);
+    }
+    
+    /**
+     * Number of frames currently in the log, including superseded ones
+     */
+    public synchronized int getFrameCount() {
+        return frameCount;
+    }
+    
+    /**
+     * Replaces the log with just the retained scores. Slow compared to an
+     * append, so it should run off the EDT (HighScoreManager runs it on the
+     * PersistenceService writer, after every append queued before it).
+     */
+    public synchronized void compact(List<PlayerScore> retained) throws IOException {
+        rewrite(retained);
+    }
+    
+    /**
+     * Replaces the whole log with exactly these scores (e.g. when migrating old data)
+     */
+    public synchronized void rewrite(List<PlayerScore> scores) throws IOException {
+        Path tempFile = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        int newFrameCount = 0;
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out);
+            for (PlayerScore score : scores) {
+                frameBuffer.clear();
+                frameBuffer.put(TYPE_SCORE);
+                putScore(frameBuffer, score);
+                writeFrame(out);
+                newFrameCount++;
+            }
+            
+            out.force(true);
+        }
+        
+        if (channel != null) {
+            channel.close();
+        }
+        try {
+            Files.move(tempFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            frameCount = newFrameCount;
+        } finally {
+            // Reopen whichever file is now the log, so appends keep working even if the move failed
+            openChannel();
+            channel.position(channel.size());
+        }
+    }
+    
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing high score log: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+    
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+    
+    private void writeHeader(FileChannel out) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        out.truncate(0);
+        out.position(0);
+        while (header.hasRemaining()) {
+            out.write(header);
+        }
+    }
+    
+    /**
+     * Seals the frame in frameBuffer with its CRC and writes it
+     */
+    private void writeFrame(FileChannel out) throws IOException {
+        crc.reset();
+        crc.update(frameBuffer.array(), 0, FRAME_SIZE - 4);
+        frameBuffer.putInt((int) crc.getValue());
+        frameBuffer.flip();
+        while (frameBuffer.hasRemaining()) {
+            out.write(frameBuffer);
+        }
+        if (out == channel) {
+            frameCount++;
+        }
+    }
+    
+    private static void putScore(ByteBuffer buffer, PlayerScore score) {
+        putName(buffer, score.getPlayerName());
+        putName(buffer, score.getLevelName());
+        buffer.putInt(score.getScore());
+        buffer.putLong(score.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+    
+    private static PlayerScore readScore(ByteBuffer buffer) {
+        String playerName = getName(buffer);
+        String levelName = getName(buffer);
+        int score = buffer.getInt();
+        LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneOffset.UTC);
+        buffer.getInt(); // CRC, already checked
+        return new PlayerScore(playerName, score, levelName, timestamp);
+    }
+    
+    private static void putName(ByteBuffer buffer, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, NAME_FIELD_SIZE - 1);
+        // Don't cut a multi-byte character in half
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        buffer.put((byte) length);
+        buffer.put(bytes, 0, length);
+        for (int i = length; i < NAME_FIELD_SIZE - 1; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+    
+    private static String getName(ByteBuffer buffer) {
+        int start = buffer.position();
+        int length = Math.min(buffer.get() & 0xFF, NAME_FIELD_SIZE - 1);
+        String name = new String(buffer.array(), start + 1, length, StandardCharsets.UTF_8);
+        buffer.position(start + NAME_FIELD_SIZE);
+        return name;
+    }
+}
@@ -0,0 +1,135 @@
+package com.spotdifference.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.spotdifference.model.PlayerScore;
+
+/**
+ * Bounded leaderboard holding the best K scores.
+ * Backed by a min-heap whose root is the worst score still on the board, so a
+ * score that doesn't qualify is rejected in O(1) by peeking at the root, and one
+ * that does replaces it in O(log K).
+ * On equal points the newer score ranks higher, as in the original list.
+ */
+public class TopKScores {
+    private final int capacity;
+    // Root = lowest ranked entry
+    private final PriorityQueue<Entry> heap;
+    // Best-first copy, rebuilt only after the board changed
+    private List<PlayerScore> sortedCache;
+    
+    private static final Comparator<Entry> WORST_FIRST = (a, b) -> {
+        int byScore = Integer.compare(a.score.getScore(), b.score.getScore());
+        return byScore != 0 ? byScore : Long.compare(a.sequence, b.sequence);
+    };
+    
+    /**
+     * A score and its submission sequence number (used to break ties)
+     */
+    private static class Entry {
+        final PlayerScore score;
+        final long sequence;
+        
+        Entry(PlayerScore score, long sequence) {
+            this.score = score;
+            this.sequence = sequence;
+        }
+    }
+    
+    public TopKScores(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Leaderboard capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.heap = new PriorityQueue<>(capacity + 1, WORST_FIRST);
+    }
+    
+    /**
+     * Offers a score to the board.
+     *
+     * @param sequence Submission order; higher means newer
+     * @return true if the score made it onto the board
+     */
+    public boolean offer(PlayerScore score, long sequence) {
+        if (heap.size() >= capacity) {
+            Entry worst = heap.peek();
+            // A newer equal score outranks the older one, so only strictly lower scores are rejected
+            if (score.getScore() < worst.score.getScore()) {
+                return false;
+            }
+            heap.poll();
+        }
+        heap.add(new Entry(score, sequence));
+        sortedCache = null;
+        return true;
+    }
+    
+    /**
+     * O(1) check whether a score with these points would make it onto the board
+     */
+    public boolean wouldAccept(int score) {
+        return heap.size() < capacity || score >= heap.peek().score.getScore();
+    }
+    
+    /**
+     * Points needed to get onto the board (0 while it still has free slots)
+     */
+    public int getMinimumScore() {
+        return heap.size() < capacity ? 0 : heap.peek().score.getScore();
+    }
+    
+    /**
+     * Best score on the board, or null if it is empty
+     */
+    public PlayerScore getBest() {
+        List<PlayerScore> sorted = toSortedList();
+        return sorted.isEmpty() ? null : sorted.get(0);
+    }
+    
+    /**
+     * The board from best to worst (unmodifiable, cached until the next change)
+     */
+    public List<PlayerScore> toSortedList() {
+        if (sortedCache == null) {
+            List<Entry> entries = new ArrayList<>(heap);
+            entries.sort(WORST_FIRST.reversed());
+            List<PlayerScore> sorted = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                sorted.add(entry.score);
+            }
+            sortedCache = Collections.unmodifiableList(sorted);
+        }
+        return sortedCache;
+    }
+    
+    /**
+     * Adds every score on the board with its sequence number to the map
+     */
+    void collectInto(Map<PlayerScore, Long> sequences) {
+        for (Entry entry : heap) {
+            sequences.put(entry.score, entry.sequence);
+        }
+    }
+    
+    public int size() {
+        return heap.size();
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+    
+    public void clear() {
+        heap.clear();
+        sortedCache = null;
+    }
+}
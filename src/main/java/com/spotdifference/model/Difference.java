@@ -6,18 +6,33 @@ import java.io.Serializable;
 /**
  * Represents a single difference in the game.
  * Contains the location and radius for click detection.
+ * An optional HitMask replaces the circular radius with a pixel-precise region;
+ * the radius is then only used for markers and hints.
  */
 public class Difference implements Serializable {
     private static final long serialVersionUID = 1L;
     
     private Point location;
     private int radius; // Click detection radius in pixels
+    private HitMask hitMask; // Optional pixel-precise click region
     
     public Difference(int x, int y, int radius) {
         this.location = new Point(x, y);
         this.radius = radius;
     }
     
+    public Difference(int x, int y, int radius, HitMask hitMask) {
+        this(x, y, radius);
+        this.hitMask = hitMask;
+    }
+    
+    /**
+     * Creates a mask-based difference centered on the mask's bounding box
+     */
+    public Difference(HitMask hitMask) {
+        this(hitMask.getCenterX(), hitMask.getCenterY(), hitMask.getEnclosingRadius(), hitMask);
+    }
+    
     public Difference(Point location, int radius) {
         this.location = new Point(location);
         this.radius = radius;
@@ -27,34 +42,94 @@ public class Difference implements Serializable {
         return new Point(location); // Return copy to prevent modification
     }
     
+    public int getX() {
+        return location.x;
+    }
+    
+    public int getY() {
+        return location.y;
+    }
+    
     public int getRadius() {
         return radius;
     }
     
+    public HitMask getHitMask() {
+        return hitMask;
+    }
+    
+    public boolean hasHitMask() {
+        return hitMask != null;
+    }
+    
+    // Bounding box of the clickable area (inclusive), used by spatial indexes
+    
+    public int getMinX() {
+        return hitMask != null ? hitMask.getOriginX() : location.x - radius;
+    }
+    
+    public int getMinY() {
+        return hitMask != null ? hitMask.getOriginY() : location.y - radius;
+    }
+    
+    public int getMaxX() {
+        return hitMask != null ? hitMask.getOriginX() + hitMask.getWidth() - 1 : location.x + radius;
+    }
+    
+    public int getMaxY() {
+        return hitMask != null ? hitMask.getOriginY() + hitMask.getHeight() - 1 : location.y + radius;
+    }
+    
     /**
      * Checks if a click point is within this difference's detection area
      */
     public boolean contains(Point clickPoint) {
-        double distance = location.distance(clickPoint);
-        return distance <= radius;
+        return contains(clickPoint.x, clickPoint.y);
     }
     
+    /**
+     * Allocation-free variant of contains(Point).
+     * Uses the hit mask when present, otherwise compares squared distances so no sqrt is needed.
+     */
+    public boolean contains(int x, int y) {
+        if (hitMask != null) {
+            return hitMask.contains(x, y);
+        }
+        long dx = x - location.x;
+        long dy = y - location.y;
+        return dx * dx + dy * dy <= (long) radius * radius;
+    }
+    
+    /**
+     * Two differences are equal when they have the same center and the same
+     * clickable bounds. The center alone isn't enough: mask-backed differences
+     * are centered on their bounding box, so distinct regions can share a center.
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Difference that = (Difference) obj;
-        return location.equals(that.location);
+        return location.equals(that.location)
+            && hasHitMask() == that.hasHitMask()
+            && getMinX() == that.getMinX() && getMinY() == that.getMinY()
+            && getMaxX() == that.getMaxX() && getMaxY() == that.getMaxY();
     }
     
     @Override
     public int hashCode() {
-        return location.hashCode();
+        int hash = location.hashCode();
+        hash = 31 * hash + getMinX();
+        hash = 31 * hash + getMinY();
+        hash = 31 * hash + getMaxX();
+        hash = 31 * hash + getMaxY();
+        return hash;
     }
     
     @Override
     public String toString() {
-        return "Difference{x=" + location.x + ", y=" + location.y + ", radius=" + radius + "}";
+        return "Difference{x=" + location.x + ", y=" + location.y + ", radius=" + radius
+            + (hitMask != null ? ", mask=" + hitMask.getWidth() + "x" + hitMask.getHeight() : "") + "}";
     }
 }
 
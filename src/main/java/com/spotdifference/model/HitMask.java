@@ -0,0 +1,178 @@
+package com.spotdifference.model;
+
+import java.awt.image.BufferedImage;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Pixel-precise click region for a single difference.
+ * Stores one bit per pixel, packed into a long[], but only for the bounding box
+ * of the region - a thin 200x6 stripe costs 150 bytes instead of a full-image bitmap.
+ * A click is answered with a bounds check and a single bit lookup.
+ */
+public class HitMask implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int originX;
+    private final int originY;
+    private final int width;
+    private final int height;
+    private final long[] bits;
+
+    private HitMask(int originX, int originY, int width, int height, long[] bits) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        this.bits = bits;
+    }
+
+    /**
+     * Builds a mask from an image where every non-transparent, non-black pixel is hittable.
+     * The mask is cropped to the bounding box of the set pixels.
+     */
+    public static HitMask fromImage(BufferedImage maskImage) {
+        int imageWidth = maskImage.getWidth();
+        int imageHeight = maskImage.getHeight();
+        int[] row = new int[imageWidth];
+
+        int minX = imageWidth, minY = imageHeight, maxX = -1, maxY = -1;
+        for (int y = 0; y < imageHeight; y++) {
+            maskImage.getRGB(0, y, imageWidth, 1, row, 0, imageWidth);
+            for (int x = 0; x < imageWidth; x++) {
+                if (isSet(row[x])) {
+                    if (x < minX) minX = x;
+                    if (x > maxX) maxX = x;
+                    if (y < minY) minY = y;
+                    if (y > maxY) maxY = y;
+                }
+            }
+        }
+        if (maxX < 0) {
+            throw new IllegalArgumentException("Mask image has no set pixels");
+        }
+
+        int width = maxX - minX + 1;
+        int height = maxY - minY + 1;
+        long[] bits = new long[wordCount(width, height)];
+        for (int y = minY; y <= maxY; y++) {
+            maskImage.getRGB(0, y, imageWidth, 1, row, 0, imageWidth);
+            for (int x = minX; x <= maxX; x++) {
+                if (isSet(row[x])) {
+                    int bit = (y - minY) * width + (x - minX);
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+        return new HitMask(minX, minY, width, height, bits);
+    }
+
+    /**
+     * Builds a mask from run-length encoded rows.
+     * Runs cover the box row by row and alternate clear/set, starting with a clear run
+     * (which may be 0), e.g. {2, 3, 1} = two clear pixels, three set, one clear.
+     */
+    public static HitMask fromRunLengths(int originX, int originY, int width, int height, int[] runs) {
+        long[] bits = new long[wordCount(width, height)];
+        int total = width * height;
+        int position = 0;
+        boolean set = false;
+        for (int run : runs) {
+            if (run < 0 || position + run > total) {
+                throw new IllegalArgumentException("Run lengths exceed the mask area");
+            }
+            if (set) {
+                for (int bit = position; bit < position + run; bit++) {
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+            position += run;
+            set = !set;
+        }
+        return new HitMask(originX, originY, width, height, bits);
+    }
+
+    /**
+     * Encodes this mask as alternating clear/set run lengths (see fromRunLengths)
+     */
+    public int[] toRunLengths() {
+        int total = width * height;
+        int[] runs = new int[16];
+        int runCount = 0;
+        boolean set = false;
+        int runStart = 0;
+        for (int bit = 0; bit <= total; bit++) {
+            boolean current = bit < total && (bits[bit >>> 6] & (1L << bit)) != 0;
+            if (bit == total || current != set) {
+                if (runCount == runs.length) {
+                    runs = Arrays.copyOf(runs, runs.length * 2);
+                }
+                runs[runCount++] = bit - runStart;
+                runStart = bit;
+                set = current;
+            }
+        }
+        return Arrays.copyOf(runs, runCount);
+    }
+
+    /**
+     * O(1) hit test: bounds check plus one bit lookup, no allocation
+     */
+    public boolean contains(int x, int y) {
+        int localX = x - originX;
+        int localY = y - originY;
+        if (localX < 0 || localY < 0 || localX >= width || localY >= height) {
+            return false;
+        }
+        int bit = localY * width + localX;
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public int getOriginX() {
+        return originX;
+    }
+
+    public int getOriginY() {
+        return originY;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCenterX() {
+        return originX + width / 2;
+    }
+
+    public int getCenterY() {
+        return originY + height / 2;
+    }
+
+    /**
+     * Smallest radius around the center that covers the whole bounding box
+     */
+    public int getEnclosingRadius() {
+        double halfWidth = (width + 1) / 2.0;
+        double halfHeight = (height + 1) / 2.0;
+        return (int) Math.ceil(Math.sqrt(halfWidth * halfWidth + halfHeight * halfHeight));
+    }
+
+    /**
+     * Approximate heap footprint of the packed bits in bytes
+     */
+    public int getMemoryBytes() {
+        return bits.length * Long.BYTES;
+    }
+
+    private static boolean isSet(int argb) {
+        return (argb >>> 24) != 0 && (argb & 0xFFFFFF) != 0;
+    }
+
+    private static int wordCount(int width, int height) {
+        return (int) (((long) width * height + 63) >>> 6);
+    }
+}
@@ -33,6 +33,13 @@ public class LevelData implements Serializable {
         differences.add(new Difference(x, y, radius));
     }
     
+    /**
+     * Adds a difference with a pixel-precise hit mask (e.g. long, thin differences)
+     */
+    public void addDifference(HitMask hitMask) {
+        differences.add(new Difference(hitMask));
+    }
+    
     public String getLevelName() {
         return levelName;
     }
@@ -30,12 +30,20 @@ public class LevelNode {
         this.unlocked = true;
     }
     
+    /**
+     * Marks this level completed. Which adjacent levels that unlocks depends on
+     * their prerequisites, so LevelProgressionGraph unlocks them.
+     */
     public void markCompleted() {
         this.completed = true;
-        // Unlock all adjacent levels
-        for (LevelNode adjacent : adjacentLevels) {
-            adjacent.unlock();
-        }
+    }
+    
+    /**
+     * Back to the not-completed state, locked or unlocked
+     */
+    public void resetProgress(boolean unlocked) {
+        this.unlocked = unlocked;
+        this.completed = false;
     }
     
     public String getLevelName() {
@@ -17,10 +17,17 @@ public class PlayerScore implements Serializable, Comparable<PlayerScore> {
     private LocalDateTime timestamp;
     
     public PlayerScore(String playerName, int score, String levelName) {
+        this(playerName, score, levelName, LocalDateTime.now());
+    }
+    
+    /**
+     * Restores a score with its original timestamp (e.g. when read back from disk)
+     */
+    public PlayerScore(String playerName, int score, String levelName, LocalDateTime timestamp) {
         this.playerName = playerName;
         this.score = score;
         this.levelName = levelName;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
     }
     
     public String getPlayerName() {
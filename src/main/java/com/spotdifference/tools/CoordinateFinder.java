@@ -31,6 +31,9 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import com.spotdifference.model.Difference;
 
 /**
  * COORDINATE FINDER TOOL
@@ -44,12 +47,15 @@ import javax.swing.SwingUtilities;
  * 4. You'll see a circle appear
  * 5. Copy the coordinates from the console
  * 6. Use these coordinates in LevelManager.java
+ *
+ * Or click "Auto Detect" to let DifferenceDetector find every difference
+ * automatically; each detected region gets its own enclosing radius.
  */
 public class CoordinateFinder extends JFrame {
     
     private BufferedImage image1;
     private BufferedImage image2;
-    private List<Point> clickedPoints = new ArrayList<>();
+    private List<Difference> markedDifferences = new ArrayList<>();
     private ImagePanel leftPanel;
     private ImagePanel rightPanel;
     private int defaultRadius = 30; // Default click radius
@@ -100,7 +106,12 @@ public class CoordinateFinder extends JFrame {
         undoButton.setFont(new Font("Arial", Font.BOLD, 14));
         undoButton.addActionListener(e -> undoLast());
         
+        JButton detectButton = new JButton("Auto Detect");
+        detectButton.setFont(new Font("Arial", Font.BOLD, 14));
+        detectButton.addActionListener(e -> autoDetect(detectButton));
+        
         buttonPanel.add(loadButton);
+        buttonPanel.add(detectButton);
         buttonPanel.add(clearButton);
         buttonPanel.add(undoButton);
         buttonPanel.add(printButton);
@@ -166,8 +177,62 @@ public class CoordinateFinder extends JFrame {
         }
     }
     
+    /**
+     * Runs DifferenceDetector off the EDT and marks every detected region.
+     * Detected coordinates are in image pixels, so they are scaled to the panel.
+     */
+    private void autoDetect(JButton detectButton) {
+        if (image1 == null || image2 == null) {
+            JOptionPane.showMessageDialog(this,
+                "Load both images first!",
+                "No Images",
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        detectButton.setEnabled(false);
+        new SwingWorker<List<Difference>, Void>() {
+            private long elapsedMillis;
+            
+            @Override
+            protected List<Difference> doInBackground() {
+                long start = System.nanoTime();
+                List<Difference> detected = new DifferenceDetector().detect(image1, image2);
+                elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                return detected;
+            }
+            
+            @Override
+            protected void done() {
+                detectButton.setEnabled(true);
+                try {
+                    double scaleX = (double) leftPanel.getWidth() / image1.getWidth();
+                    double scaleY = (double) leftPanel.getHeight() / image1.getHeight();
+                    List<Difference> detected = get();
+                    for (Difference diff : detected) {
+                        int radius = (int) Math.ceil(diff.getRadius() * Math.max(scaleX, scaleY));
+                        markedDifferences.add(new Difference(
+                            (int) Math.round(diff.getX() * scaleX),
+                            (int) Math.round(diff.getY() * scaleY),
+                            radius));
+                    }
+                    leftPanel.repaint();
+                    rightPanel.repaint();
+                    updateInfo();
+                    System.out.println("Auto-detected " + detected.size()
+                        + " differences in " + elapsedMillis + " ms");
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(CoordinateFinder.this,
+                        "Detection failed: " + ex.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+    
     private void clearPoints() {
-        clickedPoints.clear();
+        markedDifferences.clear();
         leftPanel.repaint();
         rightPanel.repaint();
         updateInfo();
@@ -175,17 +240,17 @@ public class CoordinateFinder extends JFrame {
     }
     
     private void undoLast() {
-        if (!clickedPoints.isEmpty()) {
-            clickedPoints.remove(clickedPoints.size() - 1);
+        if (!markedDifferences.isEmpty()) {
+            markedDifferences.remove(markedDifferences.size() - 1);
             leftPanel.repaint();
             rightPanel.repaint();
             updateInfo();
-            System.out.println("Last point removed. Total: " + clickedPoints.size());
+            System.out.println("Last point removed. Total: " + markedDifferences.size());
         }
     }
     
     private void printCode() {
-        if (clickedPoints.isEmpty()) {
+        if (markedDifferences.isEmpty()) {
             JOptionPane.showMessageDialog(this,
                 "No differences marked yet!\nClick on the differences first.",
                 "No Data",
@@ -197,22 +262,21 @@ public class CoordinateFinder extends JFrame {
         System.out.println("COPY THIS CODE TO LevelManager.java:");
         System.out.println("========================================\n");
         
-        for (int i = 0; i < clickedPoints.size(); i++) {
-            Point p = clickedPoints.get(i);
+        for (int i = 0; i < markedDifferences.size(); i++) {
+            Difference d = markedDifferences.get(i);
             System.out.println(String.format("level.addDifference(%d, %d, %d);  // Difference %d",
-                p.x, p.y, defaultRadius, i + 1));
+                d.getX(), d.getY(), d.getRadius(), i + 1));
         }
         
         System.out.println("\n========================================");
-        System.out.println("Total Differences: " + clickedPoints.size());
+        System.out.println("Total Differences: " + markedDifferences.size());
         System.out.println("========================================\n");
         
         // Also show in dialog
         StringBuilder code = new StringBuilder();
-        for (int i = 0; i < clickedPoints.size(); i++) {
-            Point p = clickedPoints.get(i);
+        for (Difference d : markedDifferences) {
             code.append(String.format("level.addDifference(%d, %d, %d);\n",
-                p.x, p.y, defaultRadius));
+                d.getX(), d.getY(), d.getRadius()));
         }
         
         JTextArea textArea = new JTextArea(code.toString());
@@ -232,7 +296,7 @@ public class CoordinateFinder extends JFrame {
         Component[] components = ((JPanel)getContentPane().getComponent(2)).getComponents();
         if (components.length > 0 && components[0] instanceof JLabel) {
             ((JLabel)components[0]).setText(
-                "Total Differences Marked: " + clickedPoints.size() + 
+                "Total Differences Marked: " + markedDifferences.size() + 
                 " | Radius: " + defaultRadius + " pixels");
         }
     }
@@ -256,14 +320,14 @@ public class CoordinateFinder extends JFrame {
                     public void mouseClicked(MouseEvent e) {
                         if (image != null) {
                             Point p = e.getPoint();
-                            clickedPoints.add(p);
+                            markedDifferences.add(new Difference(p, defaultRadius));
                             repaint();
                             rightPanel.repaint();
                             updateInfo();
                             
                             System.out.println(String.format(
                                 "Point %d: x=%d, y=%d (Radius: %d)",
-                                clickedPoints.size(), p.x, p.y, defaultRadius));
+                                markedDifferences.size(), p.x, p.y, defaultRadius));
                         }
                     }
                 });
@@ -298,13 +362,15 @@ public class CoordinateFinder extends JFrame {
             // Draw marked points
             if (image != null) {
                 g2d.setStroke(new BasicStroke(3));
-                for (int i = 0; i < clickedPoints.size(); i++) {
-                    Point p = clickedPoints.get(i);
+                for (int i = 0; i < markedDifferences.size(); i++) {
+                    Difference d = markedDifferences.get(i);
+                    Point p = d.getLocation();
+                    int radius = d.getRadius();
                     
                     // Draw circle
                     g2d.setColor(new Color(255, 0, 0, 180));
-                    g2d.drawOval(p.x - defaultRadius, p.y - defaultRadius,
-                               defaultRadius * 2, defaultRadius * 2);
+                    g2d.drawOval(p.x - radius, p.y - radius,
+                               radius * 2, radius * 2);
                     
                     // Draw crosshair
                     g2d.setColor(new Color(0, 255, 0, 200));
@@ -0,0 +1,115 @@
+package com.spotdifference.tools;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.spotdifference.logic.DifferenceIndex;
+import com.spotdifference.logic.GridDifferenceIndex;
+import com.spotdifference.model.Difference;
+
+/**
+ * CLICK LATENCY BENCHMARK
+ *
+ * Measures how long a single click hit-test takes as the number of differences grows.
+ * Compares the old approach (walk every difference in a HashSet) against the
+ * grid-based DifferenceIndex used by DifferenceChecker.
+ *
+ * HOW TO USE:
+ * Run the main method and read the table printed to the console.
+ */
+public class DifferenceCheckerBenchmark {
+    private static final int IMAGE_WIDTH = 550;
+    private static final int IMAGE_HEIGHT = 500;
+    private static final int CLICKS = 200_000;
+    private static final int[] DIFFERENCE_COUNTS = {5, 15, 50, 200, 1000, 5000};
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        System.out.println("========================================");
+        System.out.println("CLICK HIT-TEST BENCHMARK (" + CLICKS + " clicks per row)");
+        System.out.println("========================================");
+        System.out.println(String.format("%12s %16s %16s %10s", "differences", "linear ns/click", "grid ns/click", "speedup"));
+
+        for (int count : DIFFERENCE_COUNTS) {
+            List<Difference> differences = generateDifferences(random, count);
+            int[] clickX = new int[CLICKS];
+            int[] clickY = new int[CLICKS];
+            for (int i = 0; i < CLICKS; i++) {
+                clickX[i] = random.nextInt(IMAGE_WIDTH);
+                clickY[i] = random.nextInt(IMAGE_HEIGHT);
+            }
+
+            Set<Difference> set = new HashSet<>(differences);
+            DifferenceIndex index = GridDifferenceIndex.forDifferences(differences);
+
+            // Warm up both paths so the JIT has compiled them before timing
+            for (int round = 0; round < 5; round++) {
+                runLinear(set, clickX, clickY);
+                runIndexed(index, clickX, clickY);
+            }
+
+            long linearStart = System.nanoTime();
+            int linearHits = runLinear(set, clickX, clickY);
+            long linearNanos = System.nanoTime() - linearStart;
+
+            long gridStart = System.nanoTime();
+            int gridHits = runIndexed(index, clickX, clickY);
+            long gridNanos = System.nanoTime() - gridStart;
+
+            if (linearHits != gridHits) {
+                System.err.println("Hit count mismatch for " + count + " differences: "
+                        + linearHits + " vs " + gridHits);
+            }
+
+            double linearPerClick = (double) linearNanos / CLICKS;
+            double gridPerClick = (double) gridNanos / CLICKS;
+            System.out.println(String.format("%12d %16.1f %16.1f %9.1fx",
+                    count, linearPerClick, gridPerClick, linearPerClick / gridPerClick));
+        }
+        System.out.println("========================================");
+    }
+
+    private static List<Difference> generateDifferences(Random random, int count) {
+        List<Difference> differences = new ArrayList<>(count);
+        Set<Point> used = new HashSet<>();
+        while (differences.size() < count) {
+            Point location = new Point(random.nextInt(IMAGE_WIDTH), random.nextInt(IMAGE_HEIGHT));
+            if (used.add(location)) {
+                differences.add(new Difference(location, 4 + random.nextInt(9)));
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * The original DifferenceChecker loop: Point allocation and sqrt for every difference
+     */
+    private static int runLinear(Set<Difference> differences, int[] clickX, int[] clickY) {
+        int hits = 0;
+        for (int i = 0; i < clickX.length; i++) {
+            Point click = new Point(clickX[i], clickY[i]);
+            for (Difference diff : differences) {
+                if (diff.getLocation().distance(click) <= diff.getRadius()) {
+                    hits++;
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static int runIndexed(DifferenceIndex index, int[] clickX, int[] clickY) {
+        int hits = 0;
+        for (int i = 0; i < clickX.length; i++) {
+            if (index.find(clickX[i], clickY[i]) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
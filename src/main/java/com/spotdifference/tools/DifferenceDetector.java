@@ -0,0 +1,314 @@
+package com.spotdifference.tools;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.spotdifference.model.Difference;
+
+/**
+ * AUTOMATIC DIFFERENCE DETECTION ENGINE
+ *
+ * Compares two images pixel by pixel and returns one Difference per changed region.
+ *
+ * 1. The raster is split into tiles that a fork-join pool thresholds in parallel
+ *    with a PixelDiffKernel (Vector API when available, scalar otherwise).
+ *    Each tile covers a whole number of 64-pixel words, so tiles write disjoint
+ *    words of a shared long[] bitset and need no locking.
+ * 2. Connected regions (8-neighbourhood) are labelled with an iterative flood fill
+ *    over the bitset, so untouched areas are skipped a word at a time.
+ * 3. Regions closer than the merge gap are joined (antialiasing often splits one
+ *    visual difference into fragments) and regions below the minimum size are
+ *    dropped as noise.
+ *
+ * Each remaining region becomes a Difference centered on its bounding box with a
+ * radius that encloses the whole box.
+ */
+public class DifferenceDetector {
+    public static final int DEFAULT_THRESHOLD = 48;
+    public static final int DEFAULT_MIN_REGION_PIXELS = 12;
+    public static final int DEFAULT_MERGE_GAP = 6;
+
+    // Pixels per fork-join leaf task; a multiple of 64 keeps tiles word-aligned
+    private static final int TILE_PIXELS = 64 * 1024;
+
+    private final int threshold;
+    private final int minRegionPixels;
+    private final int mergeGap;
+    private final PixelDiffKernel kernel;
+    private final ForkJoinPool pool;
+
+    public DifferenceDetector() {
+        this(DEFAULT_THRESHOLD, DEFAULT_MIN_REGION_PIXELS, DEFAULT_MERGE_GAP);
+    }
+
+    /**
+     * @param threshold       Minimum |dR| + |dG| + |dB| (0-765) for a pixel to count as changed
+     * @param minRegionPixels Regions with fewer changed pixels are treated as noise
+     * @param mergeGap        Regions whose bounding boxes are within this many pixels are merged
+     */
+    public DifferenceDetector(int threshold, int minRegionPixels, int mergeGap) {
+        this(threshold, minRegionPixels, mergeGap, PixelDiffKernel.best());
+    }
+
+    public DifferenceDetector(int threshold, int minRegionPixels, int mergeGap, PixelDiffKernel kernel) {
+        this.threshold = threshold;
+        this.minRegionPixels = minRegionPixels;
+        this.mergeGap = mergeGap;
+        this.kernel = kernel;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    public PixelDiffKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Detects all differing regions between two equally sized images
+     */
+    public List<Difference> detect(BufferedImage image1, BufferedImage image2) {
+        int width = image1.getWidth();
+        int height = image1.getHeight();
+        if (image2.getWidth() != width || image2.getHeight() != height) {
+            throw new IllegalArgumentException("Images must have the same size: "
+                    + width + "x" + height + " vs " + image2.getWidth() + "x" + image2.getHeight());
+        }
+
+        long[] changed = diffMask(toArgb(image1), toArgb(image2));
+        List<Region> regions = findRegions(changed, width, height);
+        regions = mergeNearbyRegions(regions);
+
+        List<Difference> differences = new ArrayList<>();
+        for (Region region : regions) {
+            if (region.pixels >= minRegionPixels) {
+                differences.add(region.toDifference());
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Thresholds the per-pixel color distance of two ARGB rasters into a bitset
+     * (bit i set = pixel i changed), using the fork-join pool.
+     */
+    public long[] diffMask(int[] pixels1, int[] pixels2) {
+        if (pixels1.length != pixels2.length) {
+            throw new IllegalArgumentException("Rasters must have the same length");
+        }
+        long[] changed = new long[(pixels1.length + 63) >>> 6];
+        pool.invoke(new DiffTask(pixels1, pixels2, changed, 0, pixels1.length));
+        return changed;
+    }
+
+    /**
+     * Returns the ARGB pixels of an image, reusing the backing array when the
+     * image is already a plain int-packed raster.
+     */
+    static int[] toArgb(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if ((image.getType() == BufferedImage.TYPE_INT_ARGB || image.getType() == BufferedImage.TYPE_INT_RGB)
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt buffer
+                && image.getSampleModel() instanceof SinglePixelPackedSampleModel model
+                && model.getScanlineStride() == width
+                && image.getRaster().getSampleModelTranslateX() == 0
+                && image.getRaster().getSampleModelTranslateY() == 0
+                && buffer.getNumBanks() == 1
+                && buffer.getOffset() == 0) {
+            return buffer.getData();
+        }
+        return image.getRGB(0, 0, width, height, null, 0, width);
+    }
+
+    private class DiffTask extends RecursiveAction {
+        private final int[] pixels1;
+        private final int[] pixels2;
+        private final long[] changed;
+        private final int from;
+        private final int to;
+
+        DiffTask(int[] pixels1, int[] pixels2, long[] changed, int from, int to) {
+            this.pixels1 = pixels1;
+            this.pixels2 = pixels2;
+            this.changed = changed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILE_PIXELS) {
+                kernel.diff(pixels1, pixels2, changed, from, to, threshold);
+                return;
+            }
+            // Split on a 64-pixel boundary so the halves never share a word
+            int middle = ((from + (to - from) / 2) >>> 6) << 6;
+            invokeAll(new DiffTask(pixels1, pixels2, changed, from, middle),
+                      new DiffTask(pixels1, pixels2, changed, middle, to));
+        }
+    }
+
+    /**
+     * Labels 8-connected regions of set bits. Consumes the bitset.
+     */
+    private List<Region> findRegions(long[] changed, int width, int height) {
+        List<Region> regions = new ArrayList<>();
+        int[] stack = new int[1024];
+
+        for (int word = 0; word < changed.length; word++) {
+            while (changed[word] != 0) {
+                int seed = (word << 6) + Long.numberOfTrailingZeros(changed[word]);
+                changed[word] &= changed[word] - 1;
+
+                Region region = new Region(seed % width, seed / width);
+                int top = 0;
+                stack[top++] = seed;
+
+                while (top > 0) {
+                    int pixel = stack[--top];
+                    int x = pixel % width;
+                    int y = pixel / width;
+                    region.include(x, y);
+
+                    for (int dy = -1; dy <= 1; dy++) {
+                        int ny = y + dy;
+                        if (ny < 0 || ny >= height) continue;
+                        for (int dx = -1; dx <= 1; dx++) {
+                            int nx = x + dx;
+                            if (nx < 0 || nx >= width || (dx == 0 && dy == 0)) continue;
+                            int neighbour = ny * width + nx;
+                            long bit = 1L << neighbour;
+                            if ((changed[neighbour >>> 6] & bit) != 0) {
+                                changed[neighbour >>> 6] &= ~bit;
+                                if (top == stack.length) {
+                                    stack = Arrays.copyOf(stack, stack.length * 2);
+                                }
+                                stack[top++] = neighbour;
+                            }
+                        }
+                    }
+                }
+                regions.add(region);
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Merges regions whose boxes are within mergeGap of each other until no two are.
+     * Each round sweeps the boxes sorted by minX, so only boxes that overlap in x are
+     * compared, and joins near pairs with union-find. A merged box can reach boxes its
+     * parts didn't, so rounds repeat until one merges nothing (usually one or two).
+     * Merged regions keep the position of their first member.
+     */
+    private List<Region> mergeNearbyRegions(List<Region> regions) {
+        while (regions.size() > 1) {
+            int count = regions.size();
+            Integer[] byMinX = new Integer[count];
+            int[] parent = new int[count];
+            for (int i = 0; i < count; i++) {
+                byMinX[i] = i;
+                parent[i] = i;
+            }
+            List<Region> current = regions;
+            Arrays.sort(byMinX, (a, b) -> Integer.compare(current.get(a).minX, current.get(b).minX));
+
+            boolean merged = false;
+            for (int a = 0; a < count; a++) {
+                Region region = regions.get(byMinX[a]);
+                for (int b = a + 1; b < count; b++) {
+                    Region other = regions.get(byMinX[b]);
+                    if (other.minX > region.maxX + mergeGap) {
+                        break;
+                    }
+                    if (region.isNear(other, mergeGap) && union(parent, byMinX[a], byMinX[b])) {
+                        merged = true;
+                    }
+                }
+            }
+            if (!merged) {
+                break;
+            }
+
+            Region[] combined = new Region[count];
+            List<Region> next = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int root = find(parent, i);
+                if (combined[root] == null) {
+                    combined[root] = regions.get(i);
+                    next.add(regions.get(i));
+                } else {
+                    combined[root].absorb(regions.get(i));
+                }
+            }
+            regions = next;
+        }
+        return regions;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * @return true if a and b were in different sets
+     */
+    private static boolean union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) {
+            return false;
+        }
+        parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        return true;
+    }
+
+    private static class Region {
+        int minX, minY, maxX, maxY;
+        int pixels;
+
+        Region(int x, int y) {
+            minX = maxX = x;
+            minY = maxY = y;
+        }
+
+        void include(int x, int y) {
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+            pixels++;
+        }
+
+        boolean isNear(Region other, int gap) {
+            return other.minX <= maxX + gap && other.maxX >= minX - gap
+                && other.minY <= maxY + gap && other.maxY >= minY - gap;
+        }
+
+        void absorb(Region other) {
+            minX = Math.min(minX, other.minX);
+            minY = Math.min(minY, other.minY);
+            maxX = Math.max(maxX, other.maxX);
+            maxY = Math.max(maxY, other.maxY);
+            pixels += other.pixels;
+        }
+
+        Difference toDifference() {
+            int centerX = (minX + maxX) / 2;
+            int centerY = (minY + maxY) / 2;
+            double halfWidth = (maxX - minX) / 2.0 + 1;
+            double halfHeight = (maxY - minY) / 2.0 + 1;
+            int radius = (int) Math.ceil(Math.sqrt(halfWidth * halfWidth + halfHeight * halfHeight));
+            return new Difference(centerX, centerY, radius);
+        }
+    }
+}
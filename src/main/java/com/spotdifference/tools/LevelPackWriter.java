@@ -0,0 +1,212 @@
+package com.spotdifference.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.spotdifference.manager.LevelManager;
+import com.spotdifference.manager.LevelPack;
+import com.spotdifference.manager.LevelProgressionGraph;
+import com.spotdifference.manager.LevelProgressionGraph.Prerequisite;
+import com.spotdifference.model.Difference;
+import com.spotdifference.model.HitMask;
+import com.spotdifference.model.LevelData;
+
+/**
+ * LEVEL PACK WRITER
+ *
+ * Writes levels, their difference tables and the progression graph into the
+ * binary pack format read by LevelPack (the layout is documented there).
+ *
+ * HOW TO USE:
+ * Run the main method to export the built-in campaign:
+ *   java com.spotdifference.tools.LevelPackWriter [output file, default levels.pack]
+ * The game picks the pack up from the working directory, or from the path in
+ * -Dspotdifference.levelPack. New levels can be added with addLevel() and
+ * addConnection() from your own tool code, then write().
+ */
+public class LevelPackWriter {
+    private final List<Level> levels = new ArrayList<>();
+    private final HashMap<String, Integer> levelIndex = new HashMap<>();
+    private final List<int[]> edges = new ArrayList<>();
+    
+    private static class Level {
+        final LevelData data;
+        final boolean unlockedAtStart;
+        Prerequisite prerequisite = Prerequisite.ANY_OF;
+        int prerequisiteK;
+        
+        Level(LevelData data, boolean unlockedAtStart) {
+            this.data = data;
+            this.unlockedAtStart = unlockedAtStart;
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "levels.pack");
+        LevelManager levelManager = new LevelManager(null);
+        LevelProgressionGraph graph = LevelProgressionGraph.createDefault();
+        
+        LevelPackWriter writer = new LevelPackWriter();
+        for (String levelName : graph.getTopologicalOrder()) {
+            LevelData level = levelManager.getLevel(levelName);
+            if (level != null) {
+                writer.addLevel(level, graph.isLevelUnlocked(levelName));
+                writer.setPrerequisite(levelName, graph.getPrerequisite(levelName),
+                    graph.getPrerequisiteCount(levelName));
+            }
+        }
+        for (String levelName : levelManager.getAllLevelNames()) {
+            if (!writer.levelIndex.containsKey(levelName)) {
+                writer.addLevel(levelManager.getLevel(levelName), false);
+            }
+        }
+        for (String levelName : graph.getAllLevels()) {
+            for (String next : graph.getAdjacentLevels(levelName)) {
+                writer.addConnection(levelName, next);
+            }
+        }
+        
+        writer.write(output);
+        System.out.println("Wrote " + writer.levels.size() + " levels and " + writer.edges.size()
+            + " connections to " + output.toAbsolutePath());
+    }
+    
+    public void addLevel(LevelData level, boolean unlockedAtStart) {
+        if (levelIndex.containsKey(level.getLevelName())) {
+            throw new IllegalArgumentException("Duplicate level " + level.getLevelName());
+        }
+        levelIndex.put(level.getLevelName(), levels.size());
+        levels.add(new Level(level, unlockedAtStart));
+    }
+    
+    /**
+     * Sets the unlock rule of a level (k is only used by K_OF_N, 0-255)
+     */
+    public void setPrerequisite(String levelName, Prerequisite rule, int k) {
+        Level level = levels.get(indexOf(levelName));
+        level.prerequisite = rule;
+        level.prerequisiteK = Math.max(0, Math.min(255, k));
+    }
+    
+    public void addConnection(String from, String to) {
+        edges.add(new int[] {indexOf(from), indexOf(to)});
+    }
+    
+    /**
+     * Writes the pack to a temp file and moves it into place
+     */
+    public void write(Path output) throws IOException {
+        List<byte[]> tables = new ArrayList<>(levels.size());
+        for (Level level : levels) {
+            tables.add(encodeTable(level.data));
+        }
+        
+        // Entries are fixed-width apart from their strings, so the section length
+        // (and with it every table offset) is known before writing it
+        long tableOffset = LevelPack.HEADER_SIZE + encodeSection(tables, 0).length;
+        byte[] section = encodeSection(tables, tableOffset);
+        CRC32 crc = new CRC32();
+        crc.update(section);
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(LevelPack.MAGIC);
+        out.writeInt(LevelPack.VERSION);
+        out.writeInt(levels.size());
+        out.writeInt(edges.size());
+        out.writeInt(section.length);
+        out.writeInt((int) crc.getValue());
+        out.write(section);
+        for (byte[] table : tables) {
+            out.write(table);
+        }
+        out.flush();
+        
+        Path tempFile = output.toAbsolutePath().resolveSibling(output.getFileName() + ".tmp");
+        Files.write(tempFile, bytes.toByteArray());
+        Files.move(tempFile, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private byte[] encodeSection(List<byte[]> tables, long firstTableOffset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        long offset = firstTableOffset;
+        for (int i = 0; i < levels.size(); i++) {
+            Level level = levels.get(i);
+            byte[] table = tables.get(i);
+            CRC32 crc = new CRC32();
+            crc.update(table);
+            
+            writeString(out, level.data.getLevelName());
+            writeString(out, level.data.getImage1Path());
+            writeString(out, level.data.getImage2Path());
+            out.writeByte(level.data.getDifficulty());
+            out.writeByte(level.unlockedAtStart ? LevelPack.FLAG_UNLOCKED_AT_START : 0);
+            out.writeByte(level.prerequisite.ordinal());
+            out.writeByte(level.prerequisiteK);
+            out.writeInt(level.data.getTotalDifferences());
+            out.writeLong(offset);
+            out.writeInt(table.length);
+            out.writeInt((int) crc.getValue());
+            offset += table.length;
+        }
+        for (int[] edge : edges) {
+            out.writeInt(edge[0]);
+            out.writeInt(edge[1]);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    private static byte[] encodeTable(LevelData level) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Difference diff : level.getDifferences()) {
+            out.writeByte(diff.hasHitMask() ? LevelPack.KIND_MASK : LevelPack.KIND_CIRCLE);
+            out.writeInt(diff.getX());
+            out.writeInt(diff.getY());
+            out.writeInt(diff.getRadius());
+            if (diff.hasHitMask()) {
+                HitMask mask = diff.getHitMask();
+                int[] runs = mask.toRunLengths();
+                out.writeInt(mask.getOriginX());
+                out.writeInt(mask.getOriginY());
+                out.writeInt(mask.getWidth());
+                out.writeInt(mask.getHeight());
+                out.writeInt(runs.length);
+                for (int run : runs) {
+                    out.writeInt(run);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf = value.getBytes(StandardCharsets.UTF_8);
+        if (utf.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for a level pack: " + value);
+        }
+        out.writeShort(utf.length);
+        out.write(utf);
+    }
+    
+    private int indexOf(String levelName) {
+        Integer index = levelIndex.get(levelName);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown level " + levelName);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,87 @@
+package com.spotdifference.tools;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * PIXEL DIFF KERNEL BENCHMARK
+ *
+ * Compares the scalar and Vector API pixel comparison kernels on one thread,
+ * then the full fork-join diffMask() with the best kernel, over a 4K raster pair.
+ *
+ * HOW TO USE:
+ * Run with the vector module enabled, otherwise only the scalar kernel is measured:
+ *   java --add-modules jdk.incubator.vector -cp target/classes com.spotdifference.tools.PixelDiffBenchmark
+ */
+public class PixelDiffBenchmark {
+    private static final int WIDTH = 3840;
+    private static final int HEIGHT = 2160;
+    private static final int THRESHOLD = DifferenceDetector.DEFAULT_THRESHOLD;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+    
+    public static void main(String[] args) {
+        int pixelCount = WIDTH * HEIGHT;
+        int[] pixels1 = new int[pixelCount];
+        int[] pixels2 = new int[pixelCount];
+        Random random = new Random(7);
+        for (int i = 0; i < pixelCount; i++) {
+            pixels1[i] = 0xFF000000 | random.nextInt(0x1000000);
+            // Roughly 1 in 20 pixels differs, some by less than the threshold
+            pixels2[i] = random.nextInt(20) == 0 ? pixels1[i] ^ random.nextInt(0x808080) : pixels1[i];
+        }
+        
+        System.out.println("========================================");
+        System.out.println("PIXEL DIFF BENCHMARK (" + WIDTH + "x" + HEIGHT + ")");
+        System.out.println("========================================");
+        
+        ScalarPixelDiffKernel scalar = new ScalarPixelDiffKernel();
+        PixelDiffKernel best = PixelDiffKernel.best();
+        
+        long[] scalarBits = new long[(pixelCount + 63) >>> 6];
+        double scalarMillis = measure(scalar, pixels1, pixels2, scalarBits);
+        report(scalar.getName() + ", 1 thread", scalarMillis, pixelCount);
+        
+        if (best instanceof ScalarPixelDiffKernel) {
+            System.out.println("Vector API not available - run with --add-modules jdk.incubator.vector");
+        } else {
+            long[] vectorBits = new long[scalarBits.length];
+            double vectorMillis = measure(best, pixels1, pixels2, vectorBits);
+            report(best.getName() + ", 1 thread", vectorMillis, pixelCount);
+            System.out.println(String.format("Speedup: %.2fx", scalarMillis / vectorMillis));
+            if (!Arrays.equals(scalarBits, vectorBits)) {
+                System.err.println("ERROR: vector kernel output differs from scalar kernel!");
+            }
+        }
+        
+        DifferenceDetector detector = new DifferenceDetector();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            detector.diffMask(pixels1, pixels2);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            detector.diffMask(pixels1, pixels2);
+        }
+        double parallelMillis = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+        report(detector.getKernel().getName() + ", fork-join", parallelMillis, pixelCount);
+        System.out.println("========================================");
+    }
+    
+    private static double measure(PixelDiffKernel kernel, int[] pixels1, int[] pixels2, long[] bits) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            Arrays.fill(bits, 0);
+            kernel.diff(pixels1, pixels2, bits, 0, pixels1.length, THRESHOLD);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            Arrays.fill(bits, 0);
+            kernel.diff(pixels1, pixels2, bits, 0, pixels1.length, THRESHOLD);
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+    }
+    
+    private static void report(String label, double millis, int pixelCount) {
+        System.out.println(String.format("%-28s %8.2f ms  %8.1f Mpixel/s",
+            label, millis, pixelCount / millis / 1000.0));
+    }
+}
@@ -0,0 +1,31 @@
+package com.spotdifference.tools;
+
+/**
+ * Per-pixel comparison kernel used by DifferenceDetector.
+ * Compares two ARGB rasters and sets bit i of the output bitset when
+ * |dR| + |dG| + |dB| of pixel i reaches the threshold.
+ *
+ * Ranges passed to diff() always start on a 64-pixel boundary, so a kernel
+ * owns whole words of the output and never races with other tiles.
+ */
+public interface PixelDiffKernel {
+    
+    void diff(int[] pixels1, int[] pixels2, long[] changed, int from, int to, int threshold);
+    
+    String getName();
+    
+    /**
+     * Returns the Vector API kernel when jdk.incubator.vector is available
+     * (run with --add-modules jdk.incubator.vector) and the CPU's vector length
+     * divides 64 pixels, otherwise the scalar kernel.
+     */
+    static PixelDiffKernel best() {
+        try {
+            Class<?> vectorKernel = Class.forName("com.spotdifference.tools.VectorPixelDiffKernel");
+            return (PixelDiffKernel) vectorKernel.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Includes the constructor refusing the vector length (an InvocationTargetException)
+            return new ScalarPixelDiffKernel();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.spotdifference.tools;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Random;
+
+import com.spotdifference.manager.LevelProgressionGraph;
+import com.spotdifference.manager.LevelProgressionGraph.Prerequisite;
+
+/**
+ * UNLOCK PROPAGATION BENCHMARK
+ *
+ * Generates a campaign DAG where every level has 1-3 earlier parents and a random
+ * ANY_OF / ALL_OF / K_OF_N rule, then plays it through: levels are completed
+ * in the order they unlock until nothing is left.
+ * Compares LevelProgressionGraph (per-level counters, O(out-degree) per
+ * completion) against re-checking every locked level after each completion.
+ *
+ * HOW TO USE:
+ * Run the main method and read the table printed to the console.
+ */
+public class ProgressionBenchmark {
+    private static final int[] LEVEL_COUNTS = {1000, 5000, 100_000};
+    // The rescan approach is quadratic; skip it above this size
+    private static final int MAX_RESCAN_LEVELS = 5000;
+    // Parents are picked among this many preceding levels
+    private static final int PARENT_WINDOW = 50;
+    
+    public static void main(String[] args) {
+        System.out.println("========================================");
+        System.out.println("UNLOCK PROPAGATION BENCHMARK");
+        System.out.println("========================================");
+        System.out.println(String.format("%10s %10s %12s %14s %14s", "levels", "completed", "build ms", "counters ms", "rescan ms"));
+        
+        for (int levelCount : LEVEL_COUNTS) {
+            Campaign campaign = generate(new Random(42), levelCount);
+            
+            long buildStart = System.nanoTime();
+            LevelProgressionGraph graph = campaign.toGraph();
+            long buildNanos = System.nanoTime() - buildStart;
+            
+            long playStart = System.nanoTime();
+            int completed = playThrough(graph, campaign);
+            long playNanos = System.nanoTime() - playStart;
+            
+            String rescan = "-";
+            if (levelCount <= MAX_RESCAN_LEVELS) {
+                long rescanStart = System.nanoTime();
+                int rescanCompleted = playThroughByRescan(campaign);
+                rescan = String.format("%.1f", (System.nanoTime() - rescanStart) / 1e6);
+                if (rescanCompleted != completed) {
+                    System.err.println("Completion count mismatch for " + levelCount + " levels: "
+                            + completed + " vs " + rescanCompleted);
+                }
+            }
+            
+            System.out.println(String.format("%10d %10d %12.1f %14.1f %14s",
+                    levelCount, completed, buildNanos / 1e6, playNanos / 1e6, rescan));
+        }
+        System.out.println("========================================");
+    }
+    
+    /**
+     * A generated campaign: parents[i] lists the parents of level i, which are
+     * all lower ids, so the graph is acyclic. Level 0 is unlocked at the start.
+     */
+    private static class Campaign {
+        final int[][] parents;
+        final Prerequisite[] rules;
+        final int[] ruleK;
+        
+        Campaign(int levelCount) {
+            parents = new int[levelCount][];
+            rules = new Prerequisite[levelCount];
+            ruleK = new int[levelCount];
+        }
+        
+        int requiredParents(int id) {
+            int inDegree = parents[id].length;
+            switch (rules[id]) {
+                case ALL_OF:
+                    return Math.max(1, inDegree);
+                case K_OF_N:
+                    return Math.max(1, Math.min(ruleK[id], inDegree));
+                default:
+                    return 1;
+            }
+        }
+        
+        LevelProgressionGraph toGraph() {
+            LevelProgressionGraph graph = LevelProgressionGraph.createEmpty();
+            for (int id = 0; id < parents.length; id++) {
+                graph.addLevel(name(id), id == 0);
+            }
+            for (int id = 0; id < parents.length; id++) {
+                for (int parent : parents[id]) {
+                    graph.addConnection(name(parent), name(id));
+                }
+                if (rules[id] == Prerequisite.K_OF_N) {
+                    graph.setPrerequisite(name(id), ruleK[id]);
+                } else {
+                    graph.setPrerequisite(name(id), rules[id]);
+                }
+            }
+            return graph;
+        }
+    }
+    
+    private static String name(int id) {
+        return "Level " + id;
+    }
+    
+    private static Campaign generate(Random random, int levelCount) {
+        Campaign campaign = new Campaign(levelCount);
+        Prerequisite[] allRules = Prerequisite.values();
+        campaign.parents[0] = new int[0];
+        campaign.rules[0] = Prerequisite.ANY_OF;
+        for (int id = 1; id < levelCount; id++) {
+            int window = Math.min(id, PARENT_WINDOW);
+            int parentCount = Math.min(window, 1 + random.nextInt(3));
+            int[] parents = new int[parentCount];
+            for (int p = 0; p < parentCount; p++) {
+                int candidate;
+                boolean duplicate;
+                do {
+                    candidate = id - 1 - random.nextInt(window);
+                    duplicate = false;
+                    for (int q = 0; q < p; q++) {
+                        duplicate |= parents[q] == candidate;
+                    }
+                } while (duplicate);
+                parents[p] = candidate;
+            }
+            campaign.parents[id] = parents;
+            campaign.rules[id] = allRules[random.nextInt(allRules.length)];
+            campaign.ruleK[id] = 1 + random.nextInt(parentCount);
+        }
+        return campaign;
+    }
+    
+    /**
+     * Completes levels in the order they become unlocked
+     *
+     * @return Number of levels completed
+     */
+    private static int playThrough(LevelProgressionGraph graph, Campaign campaign) {
+        ArrayDeque<Integer> playable = new ArrayDeque<>();
+        BitSet queued = new BitSet(campaign.parents.length);
+        playable.add(0);
+        queued.set(0);
+        int completed = 0;
+        while (!playable.isEmpty()) {
+            String level = name(playable.poll());
+            graph.completeLevel(level);
+            completed++;
+            for (String next : graph.getAdjacentLevels(level)) {
+                int id = Integer.parseInt(next.substring(6));
+                if (!queued.get(id) && graph.isLevelUnlocked(next)) {
+                    queued.set(id);
+                    playable.add(id);
+                }
+            }
+        }
+        return completed;
+    }
+    
+    /**
+     * The same play-through, re-checking every locked level's parents after each completion
+     */
+    private static int playThroughByRescan(Campaign campaign) {
+        int levelCount = campaign.parents.length;
+        BitSet unlocked = new BitSet(levelCount);
+        BitSet completed = new BitSet(levelCount);
+        unlocked.set(0);
+        ArrayDeque<Integer> playable = new ArrayDeque<>();
+        playable.add(0);
+        while (!playable.isEmpty()) {
+            completed.set(playable.poll());
+            for (int id = 0; id < levelCount; id++) {
+                if (unlocked.get(id)) {
+                    continue;
+                }
+                int done = 0;
+                for (int parent : campaign.parents[id]) {
+                    if (completed.get(parent)) {
+                        done++;
+                    }
+                }
+                if (done >= campaign.requiredParents(id)) {
+                    unlocked.set(id);
+                    playable.add(id);
+                }
+            }
+        }
+        return completed.cardinality();
+    }
+}
@@ -0,0 +1,65 @@
+package com.spotdifference.tools;
+
+import com.spotdifference.logic.ScoringRules;
+import com.spotdifference.logic.SessionReplayer;
+import com.spotdifference.manager.LevelManager;
+import com.spotdifference.manager.ReplayStore;
+import com.spotdifference.model.LevelData;
+
+/**
+ * REPLAY VERIFIER
+ *
+ * Replays the stored recording of the last completed game of every level
+ * (see ReplayStore) through the current game logic and checks that each one
+ * still ends with the score it was recorded with. A mismatch means a change to
+ * scoring, hit testing or the level data alters the outcome of real games.
+ *
+ * HOW TO USE:
+ * Play a few levels, then run the main method. Replays are read from
+ * ~/.spotdifference/replays, or from -Dspotdifference.replayDir=&lt;dir&gt;.
+ * Exits with status 1 if any replay fails.
+ */
+public class ReplayVerifier {
+    
+    public static void main(String[] args) {
+        LevelManager levelManager = new LevelManager();
+        ReplayStore replayStore = ReplayStore.getInstance();
+        int checked = 0;
+        int failed = 0;
+        
+        System.out.println("========================================");
+        System.out.println("REPLAY VERIFIER");
+        System.out.println("========================================");
+        for (String levelName : levelManager.getAllLevelNames()) {
+            byte[] recording = replayStore.load(levelName);
+            if (recording == null) {
+                continue;
+            }
+            LevelData level = levelManager.getLevel(levelName);
+            checked++;
+            
+            String result;
+            try {
+                SessionReplayer replayer = new SessionReplayer(recording);
+                if (replayer.verify(level, ScoringRules.DEFAULT)) {
+                    result = "OK        score " + replayer.getRecordedScore();
+                } else {
+                    failed++;
+                    // Replay again to report what the current logic makes of it
+                    int replayedScore = replayer.replay(level, ScoringRules.DEFAULT).getScore();
+                    result = "MISMATCH  recorded " + replayer.getRecordedScore() + ", replayed " + replayedScore;
+                }
+            } catch (IllegalArgumentException e) {
+                failed++;
+                result = "DAMAGED   " + e.getMessage();
+            }
+            System.out.println(String.format("%-16s %s (%d bytes)", levelName, result, recording.length));
+        }
+        
+        System.out.println("========================================");
+        System.out.println(checked + " replays checked, " + failed + " failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.spotdifference.tools;
+
+/**
+ * Plain Java pixel comparison, one pixel per iteration.
+ * Always available; used when the Vector API module is not loaded.
+ */
+public class ScalarPixelDiffKernel implements PixelDiffKernel {
+    
+    @Override
+    public void diff(int[] pixels1, int[] pixels2, long[] changed, int from, int to, int threshold) {
+        for (int i = from; i < to; i++) {
+            int a = pixels1[i];
+            int b = pixels2[i];
+            if (a == b) {
+                continue;
+            }
+            int distance = Math.abs(((a >>> 16) & 0xFF) - ((b >>> 16) & 0xFF))
+                         + Math.abs(((a >>> 8) & 0xFF) - ((b >>> 8) & 0xFF))
+                         + Math.abs((a & 0xFF) - (b & 0xFF));
+            if (distance >= threshold) {
+                changed[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,389 @@
+package com.spotdifference.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.spotdifference.logic.GameSession;
+import com.spotdifference.logic.ScoringRules;
+import com.spotdifference.manager.LevelManager;
+import com.spotdifference.model.Difference;
+import com.spotdifference.model.LevelData;
+
+/**
+ * SCORE SIMULATOR
+ *
+ * Plays every level with simulated players to balance the scoring rules and
+ * the difficulty tiers. Each bot drives a headless GameSession on a fake clock,
+ * so a session takes microseconds; sessions are split across all cores with a
+ * fork-join pool. Prints the score distribution of every level per player model.
+ *
+ * Player models describe click accuracy (scaled down for smaller differences),
+ * the average time between clicks (longer on harder levels), and how often
+ * the player asks for a hint or undoes a find. Before simulating, every level
+ * is checked that undoing a find and redoing or re-clicking it never raises
+ * the score.
+ *
+ * HOW TO USE:
+ * Run the main method; optional key=value arguments:
+ *   sessions=100000   sessions per level and player model
+ *   seed=42           random seed (same seed, same results)
+ *   find=100 miss=5 hint=20 undo=50 bonus=500 bonusPerSecond=2
+ *                     scoring rules to try instead of the shipped ones
+ */
+public class ScoreSimulator {
+    private static final int IMAGE_WIDTH = 550;
+    private static final int IMAGE_HEIGHT = 500;
+    // A bot that hasn't finished after this many clicks gives up
+    private static final int MAX_CLICKS = 400;
+    // Sessions per fork-join leaf task
+    private static final int SESSIONS_PER_TASK = 2048;
+    
+    /**
+     * How a simulated player behaves
+     */
+    public static class PlayerModel {
+        final String name;
+        // Chance that a click aimed at a 20 px difference lands on it
+        final double accuracy;
+        final double meanSecondsBetweenClicks;
+        // Chance per click of asking for a hint instead (while hints are left)
+        final double hintRate;
+        // Chance after a find of undoing it again
+        final double undoRate;
+        
+        public PlayerModel(String name, double accuracy, double meanSecondsBetweenClicks,
+                           double hintRate, double undoRate) {
+            this.name = name;
+            this.accuracy = accuracy;
+            this.meanSecondsBetweenClicks = meanSecondsBetweenClicks;
+            this.hintRate = hintRate;
+            this.undoRate = undoRate;
+        }
+    }
+    
+    private static final PlayerModel[] DEFAULT_MODELS = {
+        new PlayerModel("Casual", 0.55, 4.0, 0.10, 0.03),
+        new PlayerModel("Regular", 0.75, 2.5, 0.04, 0.02),
+        new PlayerModel("Expert", 0.92, 1.5, 0.01, 0.005)
+    };
+    
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int sessions = Integer.parseInt(options.getOrDefault("sessions", "100000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        ScoringRules rules = rulesFromOptions(options);
+        
+        LevelManager levelManager = new LevelManager();
+        List<LevelData> levels = new ArrayList<>();
+        for (String levelName : levelManager.getAllLevelNames()) {
+            LevelData level = levelManager.getLevel(levelName);
+            if (level != null && level.getTotalDifferences() > 0) {
+                levels.add(level);
+            }
+        }
+        levels.sort((a, b) -> Integer.compare(a.getDifficulty(), b.getDifficulty()));
+        for (LevelData level : levels) {
+            checkUndoCycles(level, rules);
+        }
+        
+        System.out.println("========================================");
+        System.out.println("SCORE SIMULATOR: " + sessions + " sessions per level and player, "
+            + ForkJoinPool.commonPool().getParallelism() + " workers");
+        System.out.println("Rules: " + rules);
+        System.out.println("========================================");
+        System.out.println(String.format("%-16s %4s %-8s %7s %7s %6s %6s %6s %6s %6s %7s",
+            "level", "tier", "player", "done %", "mean", "sd", "min", "p10", "p50", "p90", "avg s"));
+        
+        long totalSessions = 0;
+        long start = System.nanoTime();
+        for (LevelData level : levels) {
+            for (int m = 0; m < DEFAULT_MODELS.length; m++) {
+                PlayerModel model = DEFAULT_MODELS[m];
+                long taskSeed = seed * 31 + level.getLevelName().hashCode() * 7L + m;
+                ScoreStats stats = ForkJoinPool.commonPool().invoke(
+                    new SimulationTask(level, model, rules, taskSeed, 0, sessions));
+                totalSessions += stats.count;
+                System.out.println(String.format("%-16s %4d %-8s %7.1f %7.1f %6.1f %6d %6d %6d %6d %7.1f",
+                    level.getLevelName(), level.getDifficulty(), model.name,
+                    100.0 * stats.completed / stats.count, stats.mean(), stats.standardDeviation(),
+                    stats.percentile(0), stats.percentile(0.10), stats.percentile(0.50),
+                    stats.percentile(0.90), stats.totalSeconds / (double) Math.max(1, stats.completed)));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("========================================");
+        System.out.println(String.format("%d sessions in %.1f s (%.0f sessions/s)",
+            totalSessions, seconds, totalSessions / seconds));
+    }
+    
+    /**
+     * Finds the first difference of a level, then undoes it and finds it again
+     * by redo and by clicking, a few times over. Throws if any cycle leaves the
+     * score above what the first find gave.
+     * Levels with a single difference are skipped, the cycle would complete them.
+     */
+    private static void checkUndoCycles(LevelData level, ScoringRules rules) {
+        if (level.getTotalDifferences() < 2) {
+            return;
+        }
+        Difference diff = level.getDifferences().get(0);
+        GameSession session = new GameSession(level, () -> 0L, rules);
+        session.click(diff.getX(), diff.getY());
+        int scoreAfterFind = session.getScore();
+        for (int cycle = 0; cycle < 3; cycle++) {
+            session.undo();
+            session.redo();
+            checkScore(level, session, scoreAfterFind, "undo/redo");
+            session.undo();
+            session.click(diff.getX(), diff.getY());
+            checkScore(level, session, scoreAfterFind, "undo/click");
+        }
+    }
+    
+    private static void checkScore(LevelData level, GameSession session, int limit, String cycle) {
+        if (session.getScore() > limit) {
+            throw new IllegalStateException(level.getLevelName() + ": " + cycle
+                + " raised the score from " + limit + " to " + session.getScore());
+        }
+    }
+    
+    /**
+     * Simulates sessions [from, to) of one level and player model, splitting the range in half
+     * until it is small enough to run directly
+     */
+    private static class SimulationTask extends RecursiveTask<ScoreStats> {
+        private final LevelData level;
+        private final PlayerModel model;
+        private final ScoringRules rules;
+        private final long seed;
+        private final int from;
+        private final int to;
+        
+        SimulationTask(LevelData level, PlayerModel model, ScoringRules rules, long seed, int from, int to) {
+            this.level = level;
+            this.model = model;
+            this.rules = rules;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected ScoreStats compute() {
+            if (to - from > SESSIONS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                SimulationTask left = new SimulationTask(level, model, rules, seed, from, middle);
+                left.fork();
+                ScoreStats right = new SimulationTask(level, model, rules, seed, middle, to).compute();
+                right.merge(left.join());
+                return right;
+            }
+            
+            // Seeded by range, so results don't depend on how the pool split the work
+            SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + from);
+            Bot bot = new Bot(level, model, rules);
+            ScoreStats stats = new ScoreStats();
+            for (int i = from; i < to; i++) {
+                GameSession session = bot.play(random);
+                stats.add(session.getScore(), session.isComplete(), session.getElapsedSeconds());
+            }
+            return stats;
+        }
+    }
+    
+    /**
+     * Plays sessions of one level as a player model. Reused for many sessions by one thread.
+     */
+    private static class Bot {
+        private final LevelData level;
+        private final PlayerModel model;
+        private final ScoringRules rules;
+        private final List<Difference> differences;
+        private final Map<Difference, Integer> indexOf;
+        private final boolean[] found;
+        private final int[] candidates;
+        private final double meanClickNanos;
+        private long clockNanos;
+        
+        Bot(LevelData level, PlayerModel model, ScoringRules rules) {
+            this.level = level;
+            this.model = model;
+            this.rules = rules;
+            this.differences = level.getDifferences();
+            this.indexOf = new HashMap<>();
+            for (int i = 0; i < differences.size(); i++) {
+                indexOf.put(differences.get(i), i);
+            }
+            this.found = new boolean[differences.size()];
+            this.candidates = new int[differences.size()];
+            // Harder tiers take longer to scan
+            this.meanClickNanos = model.meanSecondsBetweenClicks * (1 + 0.2 * (level.getDifficulty() - 1)) * 1e9;
+        }
+        
+        GameSession play(SplittableRandom random) {
+            clockNanos = 0;
+            Arrays.fill(found, false);
+            GameSession session = new GameSession(level, () -> clockNanos, rules);
+            int hinted = -1;
+            
+            while (!session.isComplete() && session.getClicks() < MAX_CLICKS) {
+                // Exponentially distributed thinking time
+                clockNanos += (long) (-Math.log(1 - random.nextDouble()) * meanClickNanos);
+                
+                if (hinted < 0 && session.hasHintsAvailable() && random.nextDouble() < model.hintRate) {
+                    hinted = indexOf.get(session.useHint());
+                    continue;
+                }
+                
+                int target = (hinted >= 0 && !found[hinted]) ? hinted : pickRemaining(random);
+                Difference diff = differences.get(target);
+                double hitChance = (target == hinted) ? 0.95
+                    : model.accuracy * Math.min(1.0, Math.sqrt(diff.getRadius() / 20.0));
+                
+                Difference result;
+                if (random.nextDouble() < hitChance) {
+                    result = session.click(diff.getX(), diff.getY());
+                } else {
+                    // A near miss: somewhere around the target, clamped to the image
+                    double angle = random.nextDouble(2 * Math.PI);
+                    double distance = diff.getRadius() * (1.5 + 2.5 * random.nextDouble());
+                    int x = clamp((int) (diff.getX() + Math.cos(angle) * distance), IMAGE_WIDTH);
+                    int y = clamp((int) (diff.getY() + Math.sin(angle) * distance), IMAGE_HEIGHT);
+                    result = session.click(x, y);
+                }
+                
+                if (result != null) {
+                    int index = indexOf.get(result);
+                    found[index] = true;
+                    if (index == hinted) {
+                        hinted = -1;
+                    }
+                    if (!session.isComplete() && random.nextDouble() < model.undoRate) {
+                        Difference undone = session.undo();
+                        if (undone != null) {
+                            found[indexOf.get(undone)] = false;
+                        }
+                    }
+                }
+            }
+            return session;
+        }
+        
+        private int pickRemaining(SplittableRandom random) {
+            int count = 0;
+            for (int i = 0; i < found.length; i++) {
+                if (!found[i]) {
+                    candidates[count++] = i;
+                }
+            }
+            return candidates[random.nextInt(count)];
+        }
+        
+        private static int clamp(int value, int size) {
+            return Math.max(0, Math.min(size - 1, value));
+        }
+    }
+    
+    /**
+     * Exact score histogram plus completion count and time; mergeable across tasks.
+     * The histogram grows to the highest score seen, which depends on the
+     * rules being tried.
+     */
+    private static class ScoreStats {
+        long[] histogram = new long[1024];
+        long count;
+        long completed;
+        long totalSeconds;
+        double sum;
+        double sumOfSquares;
+        
+        void add(int score, boolean complete, long seconds) {
+            // GameSession never lets the score go below 0
+            ensureCapacity(score + 1);
+            histogram[score]++;
+            count++;
+            sum += score;
+            sumOfSquares += (double) score * score;
+            if (complete) {
+                completed++;
+                totalSeconds += seconds;
+            }
+        }
+        
+        void merge(ScoreStats other) {
+            ensureCapacity(other.histogram.length);
+            for (int i = 0; i < other.histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            count += other.count;
+            completed += other.completed;
+            totalSeconds += other.totalSeconds;
+            sum += other.sum;
+            sumOfSquares += other.sumOfSquares;
+        }
+        
+        private void ensureCapacity(int length) {
+            if (length > histogram.length) {
+                histogram = Arrays.copyOf(histogram, Math.max(length, histogram.length * 2));
+            }
+        }
+        
+        double mean() {
+            return sum / count;
+        }
+        
+        double standardDeviation() {
+            double mean = mean();
+            return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+        }
+        
+        /**
+         * Smallest score with at least fraction * count sessions at or below it
+         */
+        int percentile(double fraction) {
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int score = 0; score < histogram.length; score++) {
+                seen += histogram[score];
+                if (seen >= rank) {
+                    return score;
+                }
+            }
+            return histogram.length - 1;
+        }
+    }
+    
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+    
+    private static ScoringRules rulesFromOptions(Map<String, String> options) {
+        ScoringRules defaults = ScoringRules.DEFAULT;
+        return new ScoringRules(
+            intOption(options, "find", defaults.getFindPoints()),
+            intOption(options, "miss", defaults.getMissPenalty()),
+            intOption(options, "hint", defaults.getHintPenalty()),
+            intOption(options, "undo", defaults.getUndoPenalty()),
+            intOption(options, "bonus", defaults.getMaxTimeBonus()),
+            intOption(options, "bonusPerSecond", defaults.getTimeBonusPerSecond()));
+    }
+    
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        String value = options.get(key);
+        return (value != null) ? Integer.parseInt(value) : defaultValue;
+    }
+}
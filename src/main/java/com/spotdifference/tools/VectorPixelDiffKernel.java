@@ -0,0 +1,71 @@
+package com.spotdifference.tools;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD pixel comparison on jdk.incubator.vector.
+ * Processes the raster one 64-pixel word at a time: each vector step unpacks the
+ * R, G and B channels of a full lane group with shifts and masks, sums the absolute
+ * channel differences and turns the threshold comparison straight into output bits
+ * via VectorMask.toLong(). The lane count must divide 64, so the mask bits land
+ * in the word without any per-pixel work; SVE hardware can have other lengths
+ * (e.g. 12 lanes at 384 bits), where the constructor refuses and
+ * PixelDiffKernel.best() falls back to the scalar kernel. A partial last word
+ * falls back to the scalar kernel too.
+ *
+ * Loaded reflectively by PixelDiffKernel.best() so the rest of the code runs
+ * without --add-modules jdk.incubator.vector.
+ */
+public class VectorPixelDiffKernel implements PixelDiffKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    
+    private final ScalarPixelDiffKernel tailKernel = new ScalarPixelDiffKernel();
+    
+    /**
+     * @throws UnsupportedOperationException If the preferred vector length doesn't divide 64 pixels
+     */
+    public VectorPixelDiffKernel() {
+        if (64 % SPECIES.length() != 0) {
+            throw new UnsupportedOperationException(SPECIES.length() + " int lanes don't divide a 64-pixel word");
+        }
+    }
+    
+    @Override
+    public void diff(int[] pixels1, int[] pixels2, long[] changed, int from, int to, int threshold) {
+        int lanes = SPECIES.length();
+        int fullWordsEnd = from + ((to - from) & ~63);
+        
+        for (int word = from; word < fullWordsEnd; word += 64) {
+            long bits = 0;
+            for (int offset = 0; offset < 64; offset += lanes) {
+                IntVector a = IntVector.fromArray(SPECIES, pixels1, word + offset);
+                IntVector b = IntVector.fromArray(SPECIES, pixels2, word + offset);
+                
+                IntVector distance = channelDistance(a, b, 16)
+                        .add(channelDistance(a, b, 8))
+                        .add(channelDistance(a, b, 0));
+                VectorMask<Integer> hit = distance.compare(VectorOperators.GE, threshold);
+                bits |= hit.toLong() << offset;
+            }
+            changed[word >>> 6] |= bits;
+        }
+        
+        if (fullWordsEnd < to) {
+            tailKernel.diff(pixels1, pixels2, changed, fullWordsEnd, to, threshold);
+        }
+    }
+    
+    private static IntVector channelDistance(IntVector a, IntVector b, int shift) {
+        IntVector channelA = a.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+        IntVector channelB = b.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+        return channelA.sub(channelB).abs();
+    }
+    
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+}
@@ -0,0 +1,159 @@
+package com.spotdifference.ui;
+
+import java.awt.Rectangle;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * Single frame clock shared by every animation in the game.
+ * One Swing Timer ticks at the target frame rate, and only while at least one
+ * animation is running; with nothing moving, nothing wakes up.
+ * Animations ask for repaints through requestRepaint(), which coalesces all
+ * dirty areas of a component into one rectangle per frame, so two panels
+ * animating together cost two repaints per frame, not one per change.
+ *
+ * The frame rate defaults to 60 and can be changed with -Dspotdifference.fps=&lt;fps&gt;.
+ * Used on the EDT only.
+ */
+public class AnimationScheduler {
+    private static final int DEFAULT_FPS = 60;
+    private static final AnimationScheduler INSTANCE = new AnimationScheduler(
+        Integer.getInteger("spotdifference.fps", DEFAULT_FPS));
+    
+    /**
+     * One running animation, called once per frame
+     */
+    public interface Animation {
+        /**
+         * @param elapsedNanos Time since the animation was started
+         * @return false when the animation has finished and should be removed
+         */
+        boolean onFrame(long elapsedNanos);
+    }
+    
+    private final long frameNanos;
+    private final Timer timer;
+    // Animation -> System.nanoTime() when it was started, in start order
+    private final Map<Animation, Long> animations;
+    // Component -> union of its dirty areas for the current frame
+    private final Map<JComponent, Rectangle> dirtyRegions;
+    private boolean inFrame;
+    private long lastFrameTime;
+    
+    private long frameCount;
+    private long droppedFrames;
+    
+    public AnimationScheduler(int fps) {
+        int targetFps = Math.max(1, fps);
+        this.frameNanos = 1_000_000_000L / targetFps;
+        this.timer = new Timer(Math.max(1, 1000 / targetFps), e -> tick());
+        this.timer.setCoalesce(true);
+        this.animations = new LinkedHashMap<>();
+        this.dirtyRegions = new IdentityHashMap<>();
+    }
+    
+    public static AnimationScheduler getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Starts an animation (restarts it if already running) and the frame clock if idle
+     */
+    public void start(Animation animation) {
+        animations.put(animation, System.nanoTime());
+        if (!timer.isRunning()) {
+            lastFrameTime = System.nanoTime();
+            timer.start();
+        }
+    }
+    
+    /**
+     * Removes an animation without calling it again; the clock stops when none are left
+     */
+    public void stop(Animation animation) {
+        animations.remove(animation);
+        if (animations.isEmpty() && !inFrame) {
+            timer.stop();
+        }
+    }
+    
+    public boolean isRunning(Animation animation) {
+        return animations.containsKey(animation);
+    }
+    
+    /**
+     * Marks an area of a component as dirty. During a frame the area is merged
+     * with the component's other dirty areas and repainted once at the end of
+     * the frame; outside a frame it is repainted right away.
+     */
+    public void requestRepaint(JComponent component, int x, int y, int width, int height) {
+        if (!inFrame) {
+            component.repaint(x, y, width, height);
+            return;
+        }
+        Rectangle dirty = dirtyRegions.get(component);
+        if (dirty == null) {
+            dirtyRegions.put(component, new Rectangle(x, y, width, height));
+        } else {
+            dirty.add(new Rectangle(x, y, width, height));
+        }
+    }
+    
+    private void tick() {
+        long now = System.nanoTime();
+        long sinceLastFrame = now - lastFrameTime;
+        lastFrameTime = now;
+        frameCount++;
+        // A frame arriving more than 1.5 intervals late means at least one was skipped
+        if (sinceLastFrame > frameNanos + frameNanos / 2) {
+            droppedFrames += (sinceLastFrame - frameNanos / 2) / frameNanos;
+        }
+        
+        inFrame = true;
+        try {
+            // Snapshot, so an animation may start or stop animations from onFrame()
+            for (Animation animation : animations.keySet().toArray(new Animation[0])) {
+                Long startTime = animations.get(animation);
+                if (startTime != null && !animation.onFrame(now - startTime)) {
+                    animations.remove(animation);
+                }
+            }
+        } finally {
+            inFrame = false;
+        }
+        
+        for (Map.Entry<JComponent, Rectangle> entry : dirtyRegions.entrySet()) {
+            entry.getKey().repaint(entry.getValue());
+        }
+        dirtyRegions.clear();
+        
+        if (animations.isEmpty()) {
+            timer.stop();
+        }
+    }
+    
+    public long getFrameCount() {
+        return frameCount;
+    }
+    
+    /**
+     * Frames that should have been drawn but were skipped because the EDT was busy
+     */
+    public long getDroppedFrameCount() {
+        return droppedFrames;
+    }
+    
+    public int getActiveAnimationCount() {
+        return animations.size();
+    }
+    
+    @Override
+    public String toString() {
+        return "AnimationScheduler{active=" + animations.size() + ", frames=" + frameCount
+            + ", dropped=" + droppedFrames + "}";
+    }
+}
@@ -0,0 +1,58 @@
+package com.spotdifference.ui;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Converts decoded images into the screen's native pixel format.
+ * ImageIO often returns types like TYPE_3BYTE_BGR or custom types that Java2D
+ * has to convert on every drawImage call. Converting (and scaling) once at load
+ * time turns every later repaint into a straight blit.
+ */
+public final class CompatibleImages {
+    
+    private CompatibleImages() {
+    }
+    
+    /**
+     * Returns a copy of the image in the default screen's compatible format,
+     * scaled to width x height with bilinear filtering (done once, here).
+     */
+    public static BufferedImage toCompatible(BufferedImage source, int width, int height) {
+        GraphicsConfiguration gc = getDefaultConfiguration();
+        int transparency = source.getColorModel().getTransparency();
+        
+        if (gc != null && source.getWidth() == width && source.getHeight() == height
+                && source.getColorModel().equals(gc.getColorModel(transparency))) {
+            return source; // Already native and the right size
+        }
+        
+        BufferedImage target = (gc != null)
+            ? gc.createCompatibleImage(width, height, transparency)
+            : new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        
+        Graphics2D g2d = target.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+        return target;
+    }
+    
+    /**
+     * Default screen configuration, or null when running headless
+     */
+    public static GraphicsConfiguration getDefaultConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+            .getDefaultScreenDevice()
+            .getDefaultConfiguration();
+    }
+}
@@ -1,5 +1,6 @@
 package com.spotdifference.ui;
 
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -11,15 +12,17 @@ import java.awt.FontMetrics;
 import java.awt.GradientPaint;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -30,13 +33,16 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
-import com.spotdifference.logic.DifferenceChecker;
-import com.spotdifference.logic.HintManager;
-import com.spotdifference.logic.UndoManager;
+import com.spotdifference.logic.GameSession;
+import com.spotdifference.logic.GameSessionListener;
 import com.spotdifference.manager.HighScoreManager;
+import com.spotdifference.manager.ImageCache;
+import com.spotdifference.manager.ImageLoader;
 import com.spotdifference.manager.LevelProgressionGraph;
+import com.spotdifference.manager.ReplayStore;
 import com.spotdifference.model.Difference;
 import com.spotdifference.model.LevelData;
 import com.spotdifference.model.PlayerScore;
@@ -52,25 +58,23 @@ public class GameScreen extends JFrame {
     private static final int IMAGE_WIDTH = 550;
     // Original image height (1:1 with your image coordinates for accurate clicks)
     private static final int IMAGE_HEIGHT = 500;
+    // Half-size of the square that fully contains a found-marker / the pulsing hint
+    private static final int MARKER_EXTENT = MarkerSprites.MARKER_EXTENT;
+    private static final int HINT_EXTENT = MarkerSprites.HINT_EXTENT;
+    // How long a hint stays on screen
+    private static final long HINT_DURATION_NANOS = 2_000_000_000L;
     
     private final LevelSelectionFrame parentFrame;
     private final String levelName;
     private final LevelData levelData;
     private final LevelProgressionGraph progressionGraph;
     
-    // Data structure managers
-    private DifferenceChecker differenceChecker;
-    private UndoManager undoManager;
-    private HintManager hintManager;
+    // Game state and rules; this screen only shows the session and feeds it input
+    private final GameSession session;
     private final HighScoreManager highScoreManager;
     
-    // Game state
-    private int score;
-    private int clicks;
-    private long startTime;
-    private List<Point> foundMarkers;
-    private Timer hintTimer;
-    private Difference currentHint;
+    // Pulses the hint on the shared frame clock, removes it after HINT_DURATION_NANOS
+    private final AnimationScheduler.Animation hintAnimation = this::animateHint;
     
     // UI components
     private ImagePanel leftImagePanel;
@@ -81,7 +85,13 @@ public class GameScreen extends JFrame {
     private JLabel clicksLabel;
     private JButton hintButton;
     private JButton undoButton;
+    private JButton redoButton;
     private Timer gameTimer;
+    // Both images are on screen; until then the session stays paused and clicks are ignored
+    private boolean imagesReady;
+    // A pause or exit dialog is showing; it resumes the game itself when closed
+    private boolean pauseDialogOpen;
+    private boolean closed;
     
     public GameScreen(LevelSelectionFrame parentFrame, String levelName, 
                      LevelData levelData, LevelProgressionGraph progressionGraph) {
@@ -89,26 +99,18 @@ public class GameScreen extends JFrame {
         this.levelName = levelName;
         this.levelData = levelData;
         this.progressionGraph = progressionGraph;
-        this.highScoreManager = new HighScoreManager();
+        this.highScoreManager = HighScoreManager.getInstance();
+        this.session = new GameSession(levelData);
+        session.startRecording();
+        // Play time starts once the images are loaded
+        session.pause();
+        this.gameTimer = new Timer(1000, e -> session.tick());
         
-        // Wire up all data-structure-driven systems for this run
-        initializeGame();
         initializeFrame();
         createComponents();
-        startGameTimer();
-    }
-    
-    private void initializeGame() {
-        // HashSet: remaining differences (O(1) contains/removal)
-        this.differenceChecker = new DifferenceChecker(levelData.getDifferences());
-        // Stack: undo history (LIFO)
-        this.undoManager = new UndoManager(5); // Max 5 undos
-        // Queue: hint order (FIFO)
-        this.hintManager = new HintManager(levelData.getDifferences(), 3); // Max 3 hints
-        this.score = 0;
-        this.clicks = 0;
-        this.startTime = System.currentTimeMillis();
-        this.foundMarkers = new ArrayList<>();
+        session.addListener(new SessionView());
+        // Both images may have come straight from the cache
+        imageLoaded();
     }
     
     private void initializeFrame() {
@@ -170,7 +172,7 @@ public class GameScreen extends JFrame {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 0));
         buttonPanel.setOpaque(false);
         
-        hintButton = createGameButton("Hint (" + hintManager.getHintsRemaining() + ")", 
+        hintButton = createGameButton("Hint (" + session.getHintsRemaining() + ")", 
                                       UITheme.WARNING_YELLOW);
         hintButton.addActionListener(e -> useHint());
         
@@ -178,11 +180,16 @@ public class GameScreen extends JFrame {
         undoButton.addActionListener(e -> undoLastMove());
         undoButton.setEnabled(false);
         
+        redoButton = createGameButton("Redo", UITheme.ACCENT_PURPLE);
+        redoButton.addActionListener(e -> session.redo());
+        redoButton.setEnabled(false);
+        
         JButton pauseButton = createGameButton("Pause", UITheme.GRAY_500);
         pauseButton.addActionListener(e -> pauseGame());
         
         buttonPanel.add(hintButton);
         buttonPanel.add(undoButton);
+        buttonPanel.add(redoButton);
         buttonPanel.add(pauseButton);
         
         differencesLabel = new JLabel() {
@@ -207,7 +214,7 @@ public class GameScreen extends JFrame {
                 g2d.dispose();
             }
         };
-        differencesLabel.setText(differenceChecker.getRemainingCount() + " remaining");
+        differencesLabel.setText(session.getRemainingCount() + " remaining");
         differencesLabel.setFont(UITheme.getButtonFont(16));
         differencesLabel.setOpaque(false);
         differencesLabel.setPreferredSize(new Dimension(140, 36));
@@ -327,124 +334,146 @@ public class GameScreen extends JFrame {
         return button;
     }
     
-    private void startGameTimer() {
-        gameTimer = new Timer(1000, e -> updateTimer());
-        gameTimer.start();
+    /**
+     * Called when an image panel has its image; starts the game once both have one
+     */
+    private void imageLoaded() {
+        if (imagesReady || closed || leftImagePanel == null || rightImagePanel == null
+                || !leftImagePanel.hasImage() || !rightImagePanel.hasImage()) {
+            return;
+        }
+        imagesReady = true;
+        if (!pauseDialogOpen) {
+            resumeGame();
+        }
     }
     
-    private void updateTimer() {
-        long elapsed = (System.currentTimeMillis() - startTime) / 1000;
-        long minutes = elapsed / 60;
-        long seconds = elapsed % 60;
-        timeLabel.setText(String.format("Time: %02d:%02d", minutes, seconds));
+    private void resumeGame() {
+        if (imagesReady) {
+            session.resume();
+            gameTimer.start();
+        }
     }
     
     private class ImageClickListener extends MouseAdapter {
         @Override
         public void mouseClicked(MouseEvent e) {
-            clicks++;
-            clicksLabel.setText("Clicks: " + clicks);
-            Point clickPoint = e.getPoint();
-            
-            Difference foundDiff = differenceChecker.checkClick(clickPoint);
-            
-            if (foundDiff != null) {
-                handleCorrectClick(foundDiff);
-            } else {
-                score = Math.max(0, score - 5);
-                updateScore();
+            if (!imagesReady) {
+                return;
             }
+            session.click(e.getX(), e.getY());
         }
     }
     
-    private void handleCorrectClick(Difference difference) {
-        undoManager.pushMove(difference);
-        undoButton.setEnabled(true);
+    /**
+     * Mirrors session changes onto the labels, buttons and image panels
+     */
+    private class SessionView implements GameSessionListener {
+        @Override
+        public void differenceFound(Difference difference, int remaining) {
+            undoButton.setEnabled(true);
+            // A new find discards the moves that could be redone
+            redoButton.setEnabled(session.canRedo());
+            leftImagePanel.addMarker(difference.getLocation());
+            rightImagePanel.addMarker(difference.getLocation());
+            differencesLabel.setText(remaining + " remaining");
+        }
         
-        hintManager.removeDifference(difference);
+        @Override
+        public void hintShown(Difference hint, int hintsRemaining) {
+            leftImagePanel.showHint(hint.getLocation());
+            rightImagePanel.showHint(hint.getLocation());
+            
+            hintButton.setText("Hint (" + hintsRemaining + ")");
+            if (!session.hasHintsAvailable()) {
+                hintButton.setEnabled(false);
+            }
+            
+            // Restarts the 2 second window if a previous hint is still showing
+            AnimationScheduler.getInstance().start(hintAnimation);
+        }
+        
+        @Override
+        public void moveUndone(Difference difference, int remaining) {
+            leftImagePanel.removeMarker(difference.getLocation());
+            rightImagePanel.removeMarker(difference.getLocation());
+            differencesLabel.setText(remaining + " remaining");
+            undoButton.setEnabled(session.canUndo());
+            redoButton.setEnabled(true);
+        }
+        
+        @Override
+        public void moveRedone(Difference difference, int remaining) {
+            undoButton.setEnabled(true);
+            redoButton.setEnabled(session.canRedo());
+            leftImagePanel.addMarker(difference.getLocation());
+            rightImagePanel.addMarker(difference.getLocation());
+            differencesLabel.setText(remaining + " remaining");
+        }
         
-        foundMarkers.add(difference.getLocation());
-        leftImagePanel.addMarker(difference.getLocation());
-        rightImagePanel.addMarker(difference.getLocation());
+        @Override
+        public void scoreChanged(int score) {
+            scoreLabel.setText("Score: " + score);
+        }
         
-        score += 100;
-        updateScore();
+        @Override
+        public void clicksChanged(int clicks) {
+            clicksLabel.setText("Clicks: " + clicks);
+        }
         
-        differencesLabel.setText(differenceChecker.getRemainingCount() + " remaining");
+        @Override
+        public void timeChanged(long elapsedSeconds) {
+            long minutes = elapsedSeconds / 60;
+            long seconds = elapsedSeconds % 60;
+            timeLabel.setText(String.format("Time: %02d:%02d", minutes, seconds));
+        }
         
-        if (differenceChecker.isLevelComplete()) {
-            levelComplete();
+        @Override
+        public void levelCompleted(int finalScore, long timeSeconds, int timeBonus) {
+            levelComplete(finalScore, timeSeconds, timeBonus);
         }
     }
     
     private void useHint() {
-        if (!hintManager.hasHintsAvailable()) {
+        if (session.useHint() == null && !session.hasHintsAvailable()) {
             JOptionPane.showMessageDialog(this, "No hints remaining!", 
                 "Hint", JOptionPane.INFORMATION_MESSAGE);
-            return;
         }
-        
-        currentHint = hintManager.getNextHint();
-        if (currentHint != null) {
-            leftImagePanel.showHint(currentHint.getLocation());
-            rightImagePanel.showHint(currentHint.getLocation());
-            
-            hintButton.setText("Hint (" + hintManager.getHintsRemaining() + ")");
-            if (!hintManager.hasHintsAvailable()) {
-                hintButton.setEnabled(false);
-            }
-            
-            if (hintTimer != null) {
-                hintTimer.stop();
-            }
-            hintTimer = new Timer(2000, e -> {
-                leftImagePanel.clearHint();
-                rightImagePanel.clearHint();
-                hintTimer.stop();
-            });
-            hintTimer.start();
-            
-            score = Math.max(0, score - 20);
-            updateScore();
+    }
+    
+    private boolean animateHint(long elapsedNanos) {
+        if (elapsedNanos >= HINT_DURATION_NANOS) {
+            leftImagePanel.clearHint();
+            rightImagePanel.clearHint();
+            return false;
         }
+        float pulse = (float) (0.5 + 0.5 * Math.sin(elapsedNanos / 1_000_000 * 0.01));
+        leftImagePanel.setHintPulse(pulse);
+        rightImagePanel.setHintPulse(pulse);
+        return true;
     }
     
     private void undoLastMove() {
-        Difference lastDiff = undoManager.popMove();
-        
-        if (lastDiff != null) {
-            differenceChecker.addDifference(lastDiff);
-            
-            foundMarkers.remove(lastDiff.getLocation());
-            leftImagePanel.removeMarker(lastDiff.getLocation());
-            rightImagePanel.removeMarker(lastDiff.getLocation());
-            
-            differencesLabel.setText(differenceChecker.getRemainingCount() + " remaining");
-            
-            score = Math.max(0, score - 50);
-            updateScore();
-        }
-        
-        if (!undoManager.canUndo()) {
+        session.undo();
+        if (!session.canUndo()) {
             undoButton.setEnabled(false);
         }
     }
     
-    private void updateScore() {
-        scoreLabel.setText("Score: " + score);
-    }
-    
     private void pauseGame() {
         gameTimer.stop();
+        session.pause();
+        pauseDialogOpen = true;
         int response = JOptionPane.showConfirmDialog(
             this,
             "Game Paused\n\nResume playing?",
             "Pause",
             JOptionPane.YES_NO_OPTION
         );
+        pauseDialogOpen = false;
         
         if (response == JOptionPane.YES_OPTION) {
-            gameTimer.start();
+            resumeGame();
         } else {
             returnToLevelSelection();
         }
@@ -452,36 +481,36 @@ public class GameScreen extends JFrame {
     
     private void pauseAndConfirmExit() {
         gameTimer.stop();
+        session.pause();
+        pauseDialogOpen = true;
         int response = JOptionPane.showConfirmDialog(
             this,
             "Exit current game?",
             "Confirm Exit",
             JOptionPane.YES_NO_OPTION
         );
+        pauseDialogOpen = false;
         
         if (response == JOptionPane.YES_OPTION) {
             returnToLevelSelection();
         } else {
-            gameTimer.start();
+            resumeGame();
         }
     }
     
-    private void levelComplete() {
+    private void levelComplete(int finalScore, long timeSeconds, int timeBonus) {
         gameTimer.stop();
         
-        long timeSeconds = (System.currentTimeMillis() - startTime) / 1000;
-        int timeBonus = Math.max(0, 500 - (int) timeSeconds * 2);
-        score += timeBonus;
-        
         progressionGraph.completeLevel(levelName);
+        ReplayStore.getInstance().save(levelName, session.getRecorder().toByteArray());
         
-        JDialog completionDialog = createCompletionDialog(timeSeconds, timeBonus);
+        JDialog completionDialog = createCompletionDialog(finalScore, timeSeconds, timeBonus);
         completionDialog.setVisible(true);
         
         returnToLevelSelection();
     }
     
-    private JDialog createCompletionDialog(long timeSeconds, int timeBonus) {
+    private JDialog createCompletionDialog(int score, long timeSeconds, int timeBonus) {
         JDialog dialog = new JDialog(this, "Level Complete!", true);
         dialog.setSize(500, 400);
         dialog.setLocationRelativeTo(this);
@@ -527,10 +556,10 @@ public class GameScreen extends JFrame {
         statsPanel.add(Box.createRigidArea(new Dimension(0, 15)));
         statsPanel.add(bonusLabel);
         
-        boolean isHighScore = highScoreManager.isHighScore(score);
-        
-        if (isHighScore) {
-            JLabel highScoreLabel = new JLabel("NEW HIGH SCORE!");
+        // Ask for a name whenever the score makes a board; "NEW HIGH SCORE!" is for a new #1 only
+        if (highScoreManager.qualifiesForLeaderboard(score, levelName)) {
+            JLabel highScoreLabel = new JLabel(highScoreManager.isHighScore(score)
+                ? "NEW HIGH SCORE!" : "You made the leaderboard!");
             highScoreLabel.setFont(UITheme.getHeadingFont(20));
             highScoreLabel.setForeground(UITheme.WARNING_YELLOW_LIGHT);
             highScoreLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -615,51 +644,114 @@ public class GameScreen extends JFrame {
     }
     
     private void returnToLevelSelection() {
-        if (gameTimer != null) {
-            gameTimer.stop();
-        }
-        if (hintTimer != null) {
-            hintTimer.stop();
-        }
+        closed = true;
+        gameTimer.stop();
+        AnimationScheduler.getInstance().stop(hintAnimation);
         parentFrame.refresh();
         parentFrame.setVisible(true);
         dispose();
     }
     
     private class ImagePanel extends JPanel {
-        private final BufferedImage image;
+        // Screen-compatible copy, already scaled to IMAGE_WIDTH x IMAGE_HEIGHT
+        private BufferedImage image;
+        // Accelerated copy of image; re-rendered from image whenever its contents are lost
+        private VolatileImage volatileImage;
         private final List<Point> markers;
         private Point hintPoint;
+        private float hintPulse;
         private final boolean isLeftImage;
         
         public ImagePanel(String imagePath, boolean isLeftImage) {
             this.isLeftImage = isLeftImage;
             this.markers = new ArrayList<>();
-            this.image = loadImage(imagePath);
             // Let the parent background show through so we don't get any
             // unwanted white behind or beside the image.
             setOpaque(false);
             setPreferredSize(new Dimension(IMAGE_WIDTH, IMAGE_HEIGHT));
+            loadImage(imagePath);
+        }
+        
+        /**
+         * Decodes the image on the shared background loader and swaps it in on the EDT.
+         * Until then paintComponent draws a lightweight "Loading..." placeholder.
+         * The decoded image is converted once to the screen format at panel size,
+         * and that copy is cached too, so repaints never scale or convert pixels.
+         */
+        private void loadImage(String imagePath) {
+            String compatibleKey = imagePath + "@" + IMAGE_WIDTH + "x" + IMAGE_HEIGHT;
+            BufferedImage cached = ImageCache.getInstance().get(compatibleKey);
+            if (cached != null) {
+                image = cached;
+                return;
+            }
+            
+            ImageLoader.getInstance().load(imagePath)
+                .thenApply(img -> {
+                    if (img == null) {
+                        return null;
+                    }
+                    BufferedImage compatible = CompatibleImages.toCompatible(img, IMAGE_WIDTH, IMAGE_HEIGHT);
+                    ImageCache.getInstance().put(compatibleKey, compatible);
+                    return compatible;
+                })
+                .whenComplete((img, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        System.err.println("Error loading image " + imagePath + ": " + error.getMessage());
+                    }
+                    image = (img != null) ? img
+                        : CompatibleImages.toCompatible(createPlaceholderImage(), IMAGE_WIDTH, IMAGE_HEIGHT);
+                    repaint();
+                    imageLoaded();
+                }));
         }
         
-        private BufferedImage loadImage(String imagePath) {
-            try {
-                java.io.InputStream inputStream = getClass().getClassLoader().getResourceAsStream(imagePath);
-                if (inputStream != null) {
-                    try {
-                    BufferedImage img = ImageIO.read(inputStream);
-                    if (img != null) {
-                        return img;
-                        }
-                    } finally {
-                        inputStream.close();
+        boolean hasImage() {
+            return image != null;
+        }
+        
+        /**
+         * Blits the image through a VolatileImage, restoring it if the
+         * graphics device dropped its contents (e.g. after a display change).
+         */
+        private void drawImage(Graphics2D g2d) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            if (gc == null) {
+                g2d.drawImage(image, 0, 0, null);
+                return;
+            }
+            do {
+                int status = (volatileImage == null)
+                    ? VolatileImage.IMAGE_INCOMPATIBLE
+                    : volatileImage.validate(gc);
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    if (volatileImage != null) {
+                        volatileImage.flush();
                     }
+                    volatileImage = gc.createCompatibleVolatileImage(IMAGE_WIDTH, IMAGE_HEIGHT,
+                        image.getColorModel().getTransparency());
+                    renderVolatileImage();
+                } else if (status == VolatileImage.IMAGE_RESTORED) {
+                    renderVolatileImage();
                 }
-                System.out.println("Could not load image: " + imagePath);
-            } catch (java.io.IOException e) {
-                System.err.println("Error loading image " + imagePath + ": " + e.getMessage());
+                g2d.drawImage(volatileImage, 0, 0, null);
+            } while (volatileImage.contentsLost());
+        }
+        
+        private void renderVolatileImage() {
+            Graphics2D vg = volatileImage.createGraphics();
+            vg.setComposite(AlphaComposite.Src);
+            vg.drawImage(image, 0, 0, null);
+            vg.dispose();
+        }
+        
+        @Override
+        public void removeNotify() {
+            super.removeNotify();
+            if (volatileImage != null) {
+                volatileImage.flush();
+                volatileImage = null;
             }
-            return createPlaceholderImage();
         }
         
         private BufferedImage createPlaceholderImage() {
@@ -693,24 +785,57 @@ public class GameScreen extends JFrame {
             return img;
         }
         
+        // Only the area around a changed marker/hint is repainted, not the whole image
+        
         public void addMarker(Point point) {
             markers.add(point);
-            repaint();
+            repaintAround(point, MARKER_EXTENT);
         }
         
         public void removeMarker(Point point) {
             markers.remove(point);
-            repaint();
+            repaintAround(point, MARKER_EXTENT);
         }
         
         public void showHint(Point point) {
+            if (hintPoint != null) {
+                repaintAround(hintPoint, HINT_EXTENT);
+            }
             this.hintPoint = point;
-            repaint();
+            this.hintPulse = 0f;
+            repaintAround(point, HINT_EXTENT);
+        }
+        
+        /**
+         * Advances the hint pulse; repaints only when it reaches a new sprite frame
+         */
+        public void setHintPulse(float pulse) {
+            boolean frameChanged = MarkerSprites.hintFrame(pulse) != MarkerSprites.hintFrame(hintPulse);
+            this.hintPulse = pulse;
+            if (hintPoint != null && frameChanged) {
+                AnimationScheduler.getInstance().requestRepaint(this,
+                    hintPoint.x - HINT_EXTENT, hintPoint.y - HINT_EXTENT, HINT_EXTENT * 2, HINT_EXTENT * 2);
+            }
         }
         
         public void clearHint() {
+            if (hintPoint != null) {
+                repaintAround(hintPoint, HINT_EXTENT);
+            }
             this.hintPoint = null;
-            repaint();
+        }
+        
+        private void repaintAround(Point point, int extent) {
+            repaint(point.x - extent, point.y - extent, extent * 2, extent * 2);
+        }
+        
+        /**
+         * True if the square of half-size extent around (x, y) touches the clip
+         */
+        private boolean intersectsClip(Rectangle clip, int x, int y, int extent) {
+            return clip == null
+                || (x + extent > clip.x && x - extent < clip.x + clip.width
+                    && y + extent > clip.y && y - extent < clip.y + clip.height);
         }
         
         @Override
@@ -718,55 +843,44 @@ public class GameScreen extends JFrame {
             super.paintComponent(g);
             Graphics2D g2d = (Graphics2D) g.create();
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
             
             // Soft shadow only, no extra white frame so the image sits flush
             UITheme.drawShadow(g2d, 4, 4, IMAGE_WIDTH - 8, IMAGE_HEIGHT - 8, 4);
             
             if (image != null) {
-                g2d.drawImage(image, 0, 0, IMAGE_WIDTH, IMAGE_HEIGHT, this);
+                // Pre-scaled, screen-compatible image: a straight blit with no interpolation
+                drawImage(g2d);
+            } else {
+                paintLoadingPlaceholder(g2d);
             }
             
+            Rectangle clip = g2d.getClipBounds();
+            
             for (Point marker : markers) {
                 int x = marker.x;
                 int y = marker.y;
-                int radius = 25;
-                
-                g2d.setColor(UITheme.withAlpha(UITheme.SUCCESS_GREEN, 0.3f));
-                g2d.fillOval(x - radius - 5, y - radius - 5, (radius + 5) * 2, (radius + 5) * 2);
-                
-                g2d.setColor(UITheme.withAlpha(UITheme.SUCCESS_GREEN, 0.6f));
-                g2d.setStroke(new BasicStroke(3f));
-                g2d.drawOval(x - radius, y - radius, radius * 2, radius * 2);
-                
-                g2d.setColor(UITheme.SUCCESS_GREEN);
-                g2d.fillOval(x - 12, y - 12, 24, 24);
-                
-                g2d.setColor(Color.WHITE);
-                g2d.setStroke(new BasicStroke(3f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                g2d.drawLine(x - 7, y, x - 2, y + 5);
-                g2d.drawLine(x - 2, y + 5, x + 7, y - 5);
+                if (!intersectsClip(clip, x, y, MARKER_EXTENT)) {
+                    continue; // Outside the dirty region
+                }
+                MarkerSprites.drawFoundMarker(g2d, x, y);
             }
             
-            if (hintPoint != null) {
-                int x = hintPoint.x;
-                int y = hintPoint.y;
-                long time = System.currentTimeMillis() % 1000;
-                float pulse = (float) (0.5 + 0.5 * Math.sin(time * 0.01));
-                
-                int outerRadius = (int) (35 + pulse * 10);
-                g2d.setColor(UITheme.withAlpha(UITheme.WARNING_YELLOW, 0.4f * pulse));
-                g2d.fillOval(x - outerRadius, y - outerRadius, outerRadius * 2, outerRadius * 2);
-                
-                g2d.setColor(UITheme.WARNING_YELLOW);
-                g2d.setStroke(new BasicStroke(4f));
-                g2d.drawOval(x - 30, y - 30, 60, 60);
-                
-                g2d.setColor(UITheme.WARNING_YELLOW_LIGHT);
-                g2d.fillOval(x - 15, y - 15, 30, 30);
+            if (hintPoint != null && intersectsClip(clip, hintPoint.x, hintPoint.y, HINT_EXTENT)) {
+                MarkerSprites.drawHint(g2d, hintPoint.x, hintPoint.y, hintPulse);
             }
             
             g2d.dispose();
         }
+        
+        private void paintLoadingPlaceholder(Graphics2D g2d) {
+            g2d.setColor(UITheme.GRAY_200);
+            g2d.fillRect(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT);
+            
+            g2d.setColor(UITheme.TEXT_SECONDARY);
+            g2d.setFont(UITheme.getBodyFont(18));
+            String text = "Loading...";
+            FontMetrics fm = g2d.getFontMetrics();
+            g2d.drawString(text, (IMAGE_WIDTH - fm.stringWidth(text)) / 2, IMAGE_HEIGHT / 2);
+        }
     }
 }
@@ -13,22 +13,27 @@ import java.util.LinkedList;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
+import javax.swing.SwingUtilities;
 import javax.swing.SwingConstants;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 
+import com.spotdifference.manager.HighScoreListener;
 import com.spotdifference.manager.HighScoreManager;
 import com.spotdifference.model.PlayerScore;
 
 /**
  * High Scores GUI - Displays the leaderboard using LinkedList
- * Shows top player scores in sorted order
+ * Shows top player scores in sorted order, overall or for a single level.
+ * Reads the shared in-memory leaderboard (no disk access) and refreshes
+ * itself whenever scores change while it is open.
  */
 public class HighScoresFrame extends JFrame {
     private static final int WINDOW_WIDTH = 700;
@@ -36,13 +41,28 @@ public class HighScoresFrame extends JFrame {
     
     private final JFrame parentFrame;
     private final HighScoreManager highScoreManager;
+    private static final String ALL_LEVELS = "All Levels";
+    // Level whose leaderboard is shown, or null for the global one
+    private String selectedLevel;
+    private final HighScoreListener scoreListener = snapshot -> SwingUtilities.invokeLater(() -> {
+        if (isDisplayable()) {
+            rebuild();
+        }
+    });
     
     public HighScoresFrame(JFrame parentFrame) {
         this.parentFrame = parentFrame;
-        this.highScoreManager = new HighScoreManager();
+        this.highScoreManager = HighScoreManager.getInstance();
         
         initializeFrame();
         createComponents();
+        highScoreManager.addListener(scoreListener);
+    }
+    
+    @Override
+    public void dispose() {
+        highScoreManager.removeListener(scoreListener);
+        super.dispose();
     }
     
     private void initializeFrame() {
@@ -88,6 +108,8 @@ public class HighScoresFrame extends JFrame {
         titleLabel.setFont(UITheme.getTitleFont(30));
         titleLabel.setForeground(Color.WHITE);
         headerPanel.add(titleLabel);
+        headerPanel.add(Box.createRigidArea(new Dimension(20, 0)));
+        headerPanel.add(createLevelSelector());
         
         JPanel tablePanel = createScoresTable();
         
@@ -117,13 +139,31 @@ public class HighScoresFrame extends JFrame {
         add(mainPanel);
     }
     
+    private JComboBox<String> createLevelSelector() {
+        JComboBox<String> levelSelector = new JComboBox<>();
+        levelSelector.addItem(ALL_LEVELS);
+        for (String levelName : highScoreManager.getLevelsWithScores()) {
+            levelSelector.addItem(levelName);
+        }
+        levelSelector.setSelectedItem(selectedLevel != null ? selectedLevel : ALL_LEVELS);
+        levelSelector.setFont(UITheme.getBodyFont(14));
+        levelSelector.addActionListener(e -> {
+            String choice = (String) levelSelector.getSelectedItem();
+            selectedLevel = ALL_LEVELS.equals(choice) ? null : choice;
+            rebuild();
+        });
+        return levelSelector;
+    }
+    
     private JPanel createScoresTable() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(UITheme.BG_CARD);
         panel.setBorder(BorderFactory.createEmptyBorder(40, 50, 40, 50));
         
         String[] columnNames = {"Rank", "Player", "Score", "Level", "Date"};
-        LinkedList<PlayerScore> scores = highScoreManager.getHighScores();
+        LinkedList<PlayerScore> scores = (selectedLevel != null)
+            ? highScoreManager.getHighScoresForLevel(selectedLevel)
+            : highScoreManager.getHighScores();
         
         DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
             @Override
@@ -233,14 +273,18 @@ public class HighScoresFrame extends JFrame {
         );
         
         if (response == JOptionPane.YES_OPTION) {
-            highScoreManager.clearScores();
-            getContentPane().removeAll();
-            createComponents();
-            revalidate();
-            repaint();
+            selectedLevel = null;
+            highScoreManager.clearScores(); // The listener rebuilds the table
         }
     }
     
+    private void rebuild() {
+        getContentPane().removeAll();
+        createComponents();
+        revalidate();
+        repaint();
+    }
+    
     private void returnToMainMenu() {
         parentFrame.setVisible(true);
         dispose();
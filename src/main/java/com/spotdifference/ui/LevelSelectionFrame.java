@@ -12,7 +12,7 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GridLayout;
 import java.awt.RenderingHints;
-import java.util.List;
+import java.util.Set;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -23,8 +23,10 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 
+import com.spotdifference.manager.ImageLoader;
 import com.spotdifference.manager.LevelManager;
 import com.spotdifference.manager.LevelProgressionGraph;
+import com.spotdifference.manager.ProgressStore;
 import com.spotdifference.model.LevelData;
 
 /**
@@ -43,7 +45,7 @@ public class LevelSelectionFrame extends JFrame {
         // Graph drives locked/unlocked state; HashMap holds level data for cards
         this.parentFrame = parentFrame;
         this.levelManager = new LevelManager();
-        this.progressionGraph = new LevelProgressionGraph();
+        this.progressionGraph = new LevelProgressionGraph(ProgressStore.getInstance(), levelManager.getLevelPack());
         
         initializeFrame();
         createComponents();
@@ -99,15 +101,16 @@ public class LevelSelectionFrame extends JFrame {
         levelsPanel.setBackground(UITheme.GRAY_50);
         levelsPanel.setBorder(BorderFactory.createEmptyBorder(50, 60, 50, 60));
         
-        // Get all levels and create buttons
-        List<String> unlockedLevels = progressionGraph.getUnlockedLevels();
+        // Get all levels and create buttons (O(1) membership checks per card)
+        Set<String> unlockedLevels = progressionGraph.getUnlockedLevelSet();
         
+        // Cards only need the index data, so pack levels aren't loaded until played
         for (String levelName : levelManager.getAllLevelNames()) {
-            LevelData levelData = levelManager.getLevel(levelName);
             boolean unlocked = unlockedLevels.contains(levelName);
             boolean completed = progressionGraph.isLevelCompleted(levelName);
             
-            JPanel levelCard = createLevelCard(levelName, levelData, unlocked, completed);
+            JPanel levelCard = createLevelCard(levelName, levelManager.getDifficulty(levelName),
+                levelManager.getDifferenceCount(levelName), unlocked, completed);
             levelsPanel.add(levelCard);
         }
         
@@ -137,7 +140,7 @@ public class LevelSelectionFrame extends JFrame {
         add(mainPanel);
     }
     
-    private JPanel createLevelCard(String levelName, LevelData levelData, boolean unlocked, boolean completed) {
+    private JPanel createLevelCard(String levelName, int difficulty, int differenceCount, boolean unlocked, boolean completed) {
         JPanel card = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
@@ -181,7 +184,7 @@ public class LevelSelectionFrame extends JFrame {
             new Color(255, 87, 34),
             UITheme.DANGER_RED
         };
-        int difficultyIndex = levelData.getDifficulty() - 1;
+        int difficultyIndex = Math.max(0, Math.min(difficultyText.length - 1, difficulty - 1));
         String difficultyRating = difficultyText[difficultyIndex];
 
         JLabel difficultyLabel = new JLabel("Difficulty: " + difficultyRating);
@@ -198,7 +201,7 @@ public class LevelSelectionFrame extends JFrame {
                 g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
                 int totalStars = 5;
-                int filledStars = Math.min(Math.max(levelData.getDifficulty(), 1), totalStars);
+                int filledStars = Math.min(Math.max(difficulty, 1), totalStars);
                 int size = 10;
                 int gap = 8;
                 int startX = (getWidth() - (totalStars * size + (totalStars - 1) * gap)) / 2;
@@ -220,7 +223,7 @@ public class LevelSelectionFrame extends JFrame {
         ratingPanel.setPreferredSize(new Dimension(120, 18));
         ratingPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
         
-        JLabel differencesLabel = new JLabel(levelData.getTotalDifferences() + " differences to find");
+        JLabel differencesLabel = new JLabel(differenceCount + " differences to find");
         differencesLabel.setFont(UITheme.getBodyFont(12));
         differencesLabel.setForeground(UITheme.TEXT_SECONDARY);
         differencesLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -337,6 +340,17 @@ public class LevelSelectionFrame extends JFrame {
         card.add(differencesLabel);
         card.add(Box.createRigidArea(new Dimension(0, 15)));
         card.add(statusLabel);
+        
+        // How far away a locked level is (cached in the graph, O(1) per card)
+        int levelsUntil = unlocked ? 0 : progressionGraph.getLevelsUntil(levelName);
+        if (levelsUntil > 0) {
+            JLabel distanceLabel = new JLabel(levelsUntil + (levelsUntil == 1 ? " level" : " levels") + " until " + levelName);
+            distanceLabel.setFont(UITheme.getBodyFont(12));
+            distanceLabel.setForeground(UITheme.TEXT_SECONDARY);
+            distanceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            card.add(Box.createRigidArea(new Dimension(0, 6)));
+            card.add(distanceLabel);
+        }
         card.add(Box.createRigidArea(new Dimension(0, 18)));
         card.add(playButton);
         card.add(Box.createRigidArea(new Dimension(0, 5)));
@@ -350,6 +364,10 @@ public class LevelSelectionFrame extends JFrame {
             GameScreen gameScreen = new GameScreen(this, levelName, levelData, progressionGraph);
             gameScreen.setVisible(true);
             this.setVisible(false);
+            
+            // Decode the levels this one unlocks while the player is busy
+            ImageLoader.getInstance().prefetchLevels(
+                progressionGraph.getAdjacentLevels(levelName), levelManager);
         }
     }
     
@@ -0,0 +1,179 @@
+package com.spotdifference.ui;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Pre-rendered sprites for the found-marker and the frames of the hint pulse.
+ * Each sprite is drawn once into a translucent compatible image and then only
+ * blitted, so painting a marker allocates no strokes or colors and costs the
+ * same no matter how many differences have been found.
+ * Sprites are rendered for the current device scale, so HiDPI screens get
+ * crisp sprites at their native resolution, and are rendered again when the
+ * scale or a theme color changes. Looking one up is a field or array read.
+ * Used on the EDT only.
+ */
+public final class MarkerSprites {
+    // Half-size of the square that fully contains each sprite
+    public static final int MARKER_EXTENT = 32;
+    public static final int HINT_EXTENT = 48;
+    
+    // Number of pre-rendered pulse steps between dimmest and brightest
+    private static final int HINT_FRAMES = 16;
+    
+    private static BufferedImage foundSprite;
+    // Indexed by hintFrame(pulse), rendered on first use
+    private static final BufferedImage[] HINT_SPRITES = new BufferedImage[HINT_FRAMES];
+    
+    // Device scale and theme colors the sprites above were rendered with
+    private static double spriteScale;
+    private static int spriteGreen;
+    private static int spriteYellow;
+    private static int spriteYellowLight;
+    
+    private MarkerSprites() {
+    }
+    
+    /**
+     * Draws the found-marker centered on (x, y)
+     */
+    public static void drawFoundMarker(Graphics2D g2d, int x, int y) {
+        double scale = deviceScale(g2d);
+        validateSprites(scale);
+        if (foundSprite == null) {
+            foundSprite = renderFoundMarker(scale);
+        }
+        blit(g2d, foundSprite, x, y, MARKER_EXTENT);
+    }
+    
+    /**
+     * Draws the hint overlay centered on (x, y)
+     *
+     * @param pulse Animation phase from 0 (dimmest) to 1 (brightest)
+     */
+    public static void drawHint(Graphics2D g2d, int x, int y, float pulse) {
+        double scale = deviceScale(g2d);
+        validateSprites(scale);
+        int frame = hintFrame(pulse);
+        BufferedImage sprite = HINT_SPRITES[frame];
+        if (sprite == null) {
+            sprite = renderHint(frame, scale);
+            HINT_SPRITES[frame] = sprite;
+        }
+        blit(g2d, sprite, x, y, HINT_EXTENT);
+    }
+    
+    /**
+     * Index of the pre-rendered frame used for a pulse value; equal indices draw identically
+     */
+    public static int hintFrame(float pulse) {
+        return Math.round(Math.max(0f, Math.min(1f, pulse)) * (HINT_FRAMES - 1));
+    }
+    
+    private static void blit(Graphics2D g2d, BufferedImage sprite, int x, int y, int extent) {
+        if (sprite.getWidth() == extent * 2) {
+            g2d.drawImage(sprite, x - extent, y - extent, null);
+        } else {
+            // Sprite was rendered at device resolution; draw it at logical size
+            g2d.drawImage(sprite, x - extent, y - extent, extent * 2, extent * 2, null);
+        }
+    }
+    
+    /**
+     * Drops the rendered sprites if the device scale or a theme color changed since
+     */
+    private static void validateSprites(double scale) {
+        int green = UITheme.SUCCESS_GREEN.getRGB();
+        int yellow = UITheme.WARNING_YELLOW.getRGB();
+        int yellowLight = UITheme.WARNING_YELLOW_LIGHT.getRGB();
+        if (scale != spriteScale || green != spriteGreen || yellow != spriteYellow
+                || yellowLight != spriteYellowLight) {
+            foundSprite = null;
+            Arrays.fill(HINT_SPRITES, null);
+            spriteScale = scale;
+            spriteGreen = green;
+            spriteYellow = yellow;
+            spriteYellowLight = yellowLight;
+        }
+    }
+    
+    private static double deviceScale(Graphics2D g2d) {
+        AffineTransform transform = g2d.getDeviceConfiguration().getDefaultTransform();
+        return Math.max(1.0, transform.getScaleX());
+    }
+    
+    private static BufferedImage renderFoundMarker(double scale) {
+        BufferedImage sprite = createSpriteImage(MARKER_EXTENT, scale);
+        Graphics2D g2d = beginSprite(sprite, MARKER_EXTENT, scale);
+        int radius = 25;
+        
+        g2d.setColor(UITheme.withAlpha(UITheme.SUCCESS_GREEN, 0.3f));
+        g2d.fillOval(-radius - 5, -radius - 5, (radius + 5) * 2, (radius + 5) * 2);
+        
+        g2d.setColor(UITheme.withAlpha(UITheme.SUCCESS_GREEN, 0.6f));
+        g2d.setStroke(new BasicStroke(3f));
+        g2d.drawOval(-radius, -radius, radius * 2, radius * 2);
+        
+        g2d.setColor(UITheme.SUCCESS_GREEN);
+        g2d.fillOval(-12, -12, 24, 24);
+        
+        g2d.setColor(Color.WHITE);
+        g2d.setStroke(new BasicStroke(3f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.drawLine(-7, 0, -2, 5);
+        g2d.drawLine(-2, 5, 7, -5);
+        
+        g2d.dispose();
+        return sprite;
+    }
+    
+    private static BufferedImage renderHint(int frame, double scale) {
+        BufferedImage sprite = createSpriteImage(HINT_EXTENT, scale);
+        Graphics2D g2d = beginSprite(sprite, HINT_EXTENT, scale);
+        float pulse = (float) frame / (HINT_FRAMES - 1);
+        
+        int outerRadius = (int) (35 + pulse * 10);
+        g2d.setColor(UITheme.withAlpha(UITheme.WARNING_YELLOW, 0.4f * pulse));
+        g2d.fillOval(-outerRadius, -outerRadius, outerRadius * 2, outerRadius * 2);
+        
+        g2d.setColor(UITheme.WARNING_YELLOW);
+        g2d.setStroke(new BasicStroke(4f));
+        g2d.drawOval(-30, -30, 60, 60);
+        
+        g2d.setColor(UITheme.WARNING_YELLOW_LIGHT);
+        g2d.fillOval(-15, -15, 30, 30);
+        
+        g2d.dispose();
+        return sprite;
+    }
+    
+    private static BufferedImage createSpriteImage(int extent, double scale) {
+        int size = (int) Math.ceil(extent * 2 * scale);
+        GraphicsConfiguration gc = CompatibleImages.getDefaultConfiguration();
+        return (gc != null)
+            ? gc.createCompatibleImage(size, size, Transparency.TRANSLUCENT)
+            : new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    }
+    
+    /**
+     * Returns a graphics context with the origin at the sprite center, in logical pixels
+     */
+    private static Graphics2D beginSprite(BufferedImage sprite, int extent, double scale) {
+        Graphics2D g2d = sprite.createGraphics();
+        g2d.setComposite(AlphaComposite.Clear);
+        g2d.fillRect(0, 0, sprite.getWidth(), sprite.getHeight());
+        g2d.setComposite(AlphaComposite.SrcOver);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g2d.scale(scale, scale);
+        g2d.translate(extent, extent);
+        return g2d;
+    }
+}